@@ -0,0 +1,291 @@
+package game.ai;
+import game.core.GameEntity;
+import game.map.GameMap;
+import game.map.MapListener;
+import game.map.Position;
+import java.util.Arrays;
+
+/**
+ * A distance field toward a single target, shared by every enemy that chases it.
+ *
+ * <p>
+ * Every walkable cell within {@code maxDistance} steps of the target holds its walking
+ * distance to the target, found with a breadth first search over the walkable cells of the
+ * map. An enemy moves by stepping to a neighbour that is one closer, see {@link #nextStep},
+ * which costs the same no matter how many enemies there are or how far away they stand.
+ *
+ * <p>
+ * The field listens to the map and repairs itself instead of being built again:
+ * <ul>
+ *     <li>when a cell opens up, the shorter distances it allows are spread outwards from it</li>
+ *     <li>when a cell is blocked, the cells whose distance depended on it are cleared and
+ *     filled in again from the cells around them that still hold</li>
+ *     <li>when the target moves, its new cell becomes the source and the old one is repaired
+ *     like any other cell that lost its distance</li>
+ * </ul>
+ * Only the cells whose distance actually changes are visited.
+ */
+public class FlowField implements MapListener {
+
+    /**
+     * the distance reported for cells the target cannot be reached from
+     */
+    public static final int UNREACHABLE = -1;
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final GameMap map;
+    private final GameEntity target;
+    private final int maxDistance;
+    private final int rows;
+    private final int cols;
+    private final int[] dist;
+    private final int[] mark;
+    private final IntMinHeap heap;
+    private int[] stack;
+    private int[] cleared;
+    private int generation;
+    private int source;
+
+    /**
+     * constructs a field over the whole map toward the target
+     */
+    public FlowField(GameMap map, GameEntity target) {
+        this(map, target, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Constructs a field toward the target that only reaches cells at most
+     * {@code maxDistance} steps away, and starts listening to the map.
+     */
+    public FlowField(GameMap map, GameEntity target, int maxDistance) {
+        if (map == null || target == null || target.getPosition() == null) {
+            throw new IllegalArgumentException("Map and a placed target are required");
+        }
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Max distance must not be negative");
+        }
+        this.map = map;
+        this.target = target;
+        this.maxDistance = maxDistance;
+        this.rows = map.getRows();
+        this.cols = map.getCols();
+        this.dist = new int[rows * cols];
+        this.mark = new int[rows * cols];
+        this.heap = new IntMinHeap(1024);
+        this.stack = new int[64];
+        this.cleared = new int[64];
+        Arrays.fill(dist, INF);
+
+        Position pos = target.getPosition();
+        source = pos.getRow() * cols + pos.getCol();
+        dist[source] = 0;
+        heap.push(source, 0);
+        spread();
+        map.addListener(this);
+    }
+
+    /**
+     * getter for the entity the field leads to
+     */
+    public GameEntity getTarget() {
+        return target;
+    }
+
+    /**
+     * getter for the furthest distance the field reaches
+     */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * returns the walking distance from the cell to the target, or {@link #UNREACHABLE}
+     */
+    public int getDistance(int r, int c) {
+        if (!map.isInside(r, c)) return UNREACHABLE;
+        int d = dist[r * cols + c];
+        return d == INF ? UNREACHABLE : d;
+    }
+
+    /**
+     * Picks the neighbour to step to from the given cell to get closer to the target.
+     * @return the neighbour as {@code row * cols + col}, or -1 if the cell is the target
+     *         itself or the target cannot be reached from it
+     */
+    public int nextStep(int r, int c) {
+        if (!map.isInside(r, c)) return -1;
+        int cell = r * cols + c;
+        int d = dist[cell];
+        if (d == INF || d == 0) return -1;
+        if (r > 0 && dist[cell - cols] == d - 1) return cell - cols;
+        if (r < rows - 1 && dist[cell + cols] == d - 1) return cell + cols;
+        if (c > 0 && dist[cell - 1] == d - 1) return cell - 1;
+        if (c < cols - 1 && dist[cell + 1] == d - 1) return cell + 1;
+        return -1;
+    }
+
+    /**
+     * picks the next step from the position, see {@link #nextStep(int, int)}
+     */
+    public int nextStep(Position pos) {
+        return nextStep(pos.getRow(), pos.getCol());
+    }
+
+    /**
+     * stops listening to the map, the field keeps its last distances
+     */
+    public void detach() {
+        map.removeListener(this);
+    }
+
+    @Override
+    public void entityAdded(GameEntity entity, int r, int c) {
+        int cell = r * cols + c;
+        if (entity == target) {
+            moveSource(cell);
+        } else if (dist[cell] != INF && !map.isWalkable(r, c)) {
+            clear(cell);
+        }
+    }
+
+    @Override
+    public void entityRemoved(GameEntity entity, int r, int c) {
+        int cell = r * cols + c;
+        if (entity != target && dist[cell] == INF && map.isWalkable(r, c)) {
+            int d = bestNeighbour(cell);
+            if (d != INF) {
+                dist[cell] = d;
+                heap.push(cell, d);
+                spread();
+            }
+        }
+    }
+
+    /**
+     * makes the cell the only source of the field
+     */
+    private void moveSource(int cell) {
+        if (cell == source) return;
+        int old = source;
+        source = cell;
+        dist[cell] = 0;
+        heap.push(cell, 0);
+        spread();
+        clear(old);
+    }
+
+    /**
+     * Clears the distance of a cell that lost it, along with every cell that only got its
+     * distance through it, and fills them in again from the cells around them that still hold.
+     */
+    private void clear(int first) {
+        nextGeneration();
+        int clearedCount = 0;
+        int top = 0;
+        stack[top++] = first;
+        mark[first] = generation;
+
+        while (top > 0) {
+            int cell = stack[--top];
+            cleared = push(cleared, clearedCount++, cell);
+            int d = dist[cell];
+            int r = cell / cols;
+            int c = cell % cols;
+            // a neighbour one step further away loses its distance unless another neighbour still supports it
+            if (r > 0) top = clearIfUnsupported(cell - cols, d, top);
+            if (r < rows - 1) top = clearIfUnsupported(cell + cols, d, top);
+            if (c > 0) top = clearIfUnsupported(cell - 1, d, top);
+            if (c < cols - 1) top = clearIfUnsupported(cell + 1, d, top);
+        }
+
+        for (int i = 0; i < clearedCount; i++) {
+            dist[cleared[i]] = INF;
+        }
+        for (int i = 0; i < clearedCount; i++) {
+            int cell = cleared[i];
+            if (!map.isWalkable(cell / cols, cell % cols)) continue;
+            int d = cell == source ? 0 : bestNeighbour(cell);
+            if (d < dist[cell]) {
+                dist[cell] = d;
+                heap.push(cell, d);
+            }
+        }
+        spread();
+    }
+
+    private int clearIfUnsupported(int cell, int parentDist, int top) {
+        if (mark[cell] == generation || cell == source) return top;
+        if (dist[cell] == INF || dist[cell] != parentDist + 1) return top;
+        if (isSupported(cell)) return top;
+        mark[cell] = generation;
+        stack = push(stack, top, cell);
+        return top + 1;
+    }
+
+    /**
+     * checks if a neighbour that was not cleared is still one step closer to the target
+     */
+    private boolean isSupported(int cell) {
+        int want = dist[cell] - 1;
+        int r = cell / cols;
+        int c = cell % cols;
+        return (r > 0 && mark[cell - cols] != generation && dist[cell - cols] == want)
+                || (r < rows - 1 && mark[cell + cols] != generation && dist[cell + cols] == want)
+                || (c > 0 && mark[cell - 1] != generation && dist[cell - 1] == want)
+                || (c < cols - 1 && mark[cell + 1] != generation && dist[cell + 1] == want);
+    }
+
+    /**
+     * returns one more than the smallest distance around the cell, or INF if that is out of reach
+     */
+    private int bestNeighbour(int cell) {
+        int r = cell / cols;
+        int c = cell % cols;
+        int best = INF;
+        if (r > 0) best = Math.min(best, dist[cell - cols]);
+        if (r < rows - 1) best = Math.min(best, dist[cell + cols]);
+        if (c > 0) best = Math.min(best, dist[cell - 1]);
+        if (c < cols - 1) best = Math.min(best, dist[cell + 1]);
+        return best == INF || best + 1 > maxDistance ? INF : best + 1;
+    }
+
+    /**
+     * spreads the distances of the cells on the heap to their neighbours, smallest first
+     */
+    private void spread() {
+        while (!heap.isEmpty()) {
+            int cell = heap.pop();
+            int d = dist[cell] + 1;
+            if (d > maxDistance) continue;
+            int r = cell / cols;
+            int c = cell % cols;
+            relax(cell - cols, r - 1, c, d);
+            relax(cell + cols, r + 1, c, d);
+            relax(cell - 1, r, c - 1, d);
+            relax(cell + 1, r, c + 1, d);
+        }
+    }
+
+    private void relax(int cell, int r, int c, int d) {
+        if (!map.isWalkable(r, c) || dist[cell] <= d) return;
+        dist[cell] = d;
+        heap.push(cell, d);
+    }
+
+    private void nextGeneration() {
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            generation = 0;
+        }
+        generation++;
+    }
+
+    private static int[] push(int[] array, int size, int value) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size] = value;
+        return array;
+    }
+}
@@ -0,0 +1,621 @@
+package game.ai;
+import game.core.GameEntity;
+import game.items.GameItem;
+import game.map.GameMap;
+import game.map.MapListener;
+import game.map.Position;
+import game.map.RegionLabels;
+import java.util.Arrays;
+
+/**
+ * Finds long paths on big maps with hierarchical path finding (HPA*).
+ *
+ * <p>
+ * The map is cut into square clusters of {@link #getClusterSize()} cells per side. Where
+ * two clusters touch, every run of cells that is open on both sides becomes an entrance,
+ * with a node on each side of it, one in the middle of a short run and one at each end of
+ * a long one. Inside a cluster the walking distance between every pair of its nodes is
+ * found once with a breadth first search and kept. A query only searches this small graph
+ * of nodes: the start and the target are joined to the nodes of their own cluster, and A*
+ * runs from node to node, so a route across the whole map only visits a few nodes per
+ * cluster instead of every cell on the way.
+ *
+ * <p>
+ * The route found is a list of waypoints, see {@link #findRoute}. Consecutive waypoints are
+ * either next to each other or in the same cluster, and a part of the route is only turned
+ * into cells when it is needed, see {@link #refine}, so an enemy that only walks the first
+ * few steps never pays for the rest. The routes can be a little longer than the shortest
+ * path, in return for searching a graph that is many times smaller than the map.
+ *
+ * <p>
+ * The pathfinder listens to the map. A blocking item that is added or removed only marks
+ * its cluster as dirty, together with the cluster next to it when the cell is on their
+ * border, and the dirty clusters are built again before the next query.
+ *
+ * <p>
+ * Like {@link Pathfinder}, a query allocates nothing and the pathfinder is not thread safe.
+ */
+public class HierarchicalPathfinder implements MapListener {
+
+    /**
+     * the length of a cluster side used when none is given
+     */
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    // runs of open cells at least this long get a node at each end instead of one in the middle
+    private static final int WIDE_ENTRANCE = 6;
+
+    // the sides of its cluster a node was placed on, a cell in a corner can be on two
+    private static final byte UP = 1;
+    private static final byte DOWN = 2;
+    private static final byte LEFT = 4;
+    private static final byte RIGHT = 8;
+
+    private final GameMap map;
+    private final int rows;
+    private final int cols;
+    private final int size;
+    private final int clusterRows;
+    private final int clusterCols;
+
+    // the cluster graph
+    private final byte[] sides;
+    private final int[] nodeAt;
+    private final int[][] nodes;
+    private final int[][] costs;
+    private final boolean[] dirty;
+    private final int[] dirtyList;
+    private int dirtyCount;
+
+    // the search over the graph, indexed by cell like the one of Pathfinder
+    private final int[] cost;
+    private final int[] parent;
+    private final int[] stamp;
+    private final IntMinHeap open;
+    private int generation;
+    private int expanded;
+
+    // breadth first search inside a single cluster, indexed by the cell inside the cluster
+    private final int[] localDist;
+    private final int[] localParent;
+    private final int[] localQueue;
+
+    // the start and target of the current query joined to the nodes of their clusters
+    private int[] startCost;
+    private int[] goalCost;
+    private int startCluster;
+    private int goalCluster;
+    private int directCost;
+
+    private int[] waypoints;
+    private int waypointCount;
+
+    /**
+     * constructs a pathfinder for the given map with the default cluster size
+     */
+    public HierarchicalPathfinder(GameMap map) {
+        this(map, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Constructs a pathfinder for the given map, builds the whole cluster graph and starts
+     * listening to the map.
+     */
+    public HierarchicalPathfinder(GameMap map, int clusterSize) {
+        if (map == null) {
+            throw new IllegalArgumentException("Map must not be null");
+        }
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2");
+        }
+        this.map = map;
+        this.rows = map.getRows();
+        this.cols = map.getCols();
+        this.size = clusterSize;
+        this.clusterRows = (rows + size - 1) / size;
+        this.clusterCols = (cols + size - 1) / size;
+        int clusters = clusterRows * clusterCols;
+
+        this.sides = new byte[rows * cols];
+        this.nodeAt = new int[rows * cols];
+        this.nodes = new int[clusters][];
+        this.costs = new int[clusters][];
+        this.dirty = new boolean[clusters];
+        this.dirtyList = new int[clusters];
+        this.cost = new int[rows * cols];
+        this.parent = new int[rows * cols];
+        this.stamp = new int[rows * cols];
+        this.open = new IntMinHeap(1024);
+        this.localDist = new int[size * size];
+        this.localParent = new int[size * size];
+        this.localQueue = new int[size * size];
+        this.startCost = new int[0];
+        this.goalCost = new int[0];
+        this.waypoints = new int[64];
+        Arrays.fill(nodeAt, -1);
+
+        for (int k = 0; k < clusters; k++) {
+            markDirty(k);
+        }
+        rebuild();
+        map.addListener(this);
+    }
+
+    /**
+     * getter for the length of a cluster side
+     */
+    public int getClusterSize() {
+        return size;
+    }
+
+    /**
+     * returns the amount of nodes in the cluster graph
+     */
+    public int getNodeCount() {
+        rebuild();
+        int count = 0;
+        for (int[] clusterNodes : nodes) {
+            count += clusterNodes.length;
+        }
+        return count;
+    }
+
+    /**
+     * returns the amount of nodes the last query took off the open list
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * getter for the amount of waypoints of the last route, the start and the target included
+     */
+    public int getWaypointCount() {
+        return waypointCount;
+    }
+
+    /**
+     * returns a waypoint of the last route as {@code row * cols + col}
+     */
+    public int getWaypoint(int i) {
+        if (i < 0 || i >= waypointCount) {
+            throw new IndexOutOfBoundsException("Waypoint " + i + " of " + waypointCount);
+        }
+        return waypoints[i];
+    }
+
+    /**
+     * finds a route, see {@link #findRoute(int, int, int, int)}
+     */
+    public int findRoute(Position from, Position to) {
+        return findRoute(from.getRow(), from.getCol(), to.getRow(), to.getCol());
+    }
+
+    /**
+     * Finds a route over the cluster graph. The waypoints are kept until the next query and
+     * can be turned into cells one part at a time with {@link #refine}.
+     *
+     * @return the amount of steps in the route, 0 if both cells are the same, or -1 if the
+     *         target cannot be reached
+     */
+    public int findRoute(int fromRow, int fromCol, int toRow, int toCol) {
+        expanded = 0;
+        waypointCount = 0;
+        if (!map.isInside(fromRow, fromCol) || !map.isWalkable(toRow, toCol)) {
+            return -1;
+        }
+        int start = fromRow * cols + fromCol;
+        int goal = toRow * cols + toCol;
+        if (start == goal) {
+            waypoints[waypointCount++] = start;
+            return 0;
+        }
+        RegionLabels regions = map.getRegions();
+        if (regions != null && map.isWalkable(fromRow, fromCol) && !regions.sameRegion(fromRow, fromCol, toRow, toCol)) {
+            return -1;
+        }
+        rebuild();
+
+        // join the start and the target to the nodes of their clusters
+        startCluster = clusterOf(start);
+        goalCluster = clusterOf(goal);
+        search(startCluster, start);
+        int[] startNodes = nodes[startCluster];
+        for (int i = 0; i < startNodes.length; i++) {
+            startCost[i] = localDist[local(startNodes[i])];
+        }
+        directCost = startCluster == goalCluster ? localDist[local(goal)] : -1;
+        search(goalCluster, goal);
+        int[] goalNodes = nodes[goalCluster];
+        for (int i = 0; i < goalNodes.length; i++) {
+            goalCost[i] = localDist[local(goalNodes[i])];
+        }
+
+        nextGeneration();
+        int closed = generation * 2 + 1;
+        open.clear();
+        reach(start, start, 0, toRow, toCol);
+        while (!open.isEmpty()) {
+            int cell = open.pop();
+            if (stamp[cell] == closed) continue;
+            stamp[cell] = closed;
+            expanded++;
+            if (cell == goal) {
+                return writeRoute(start, goal);
+            }
+            expand(cell, start, goal, toRow, toCol);
+        }
+        return -1;
+    }
+
+    /**
+     * Turns one part of the last route, from waypoint {@code segment} to the next one, into cells.
+     *
+     * @param path receives the cells as {@code row * cols + col}, the first waypoint left out
+     *             and the second one included. If the part is longer than the array, only its
+     *             first cells are written
+     * @return the amount of steps in the part, or -1 if the map changed and it is no longer open
+     */
+    public int refine(int segment, int[] path) {
+        if (segment < 0 || segment >= waypointCount - 1) {
+            throw new IndexOutOfBoundsException("Segment " + segment + " of " + (waypointCount - 1));
+        }
+        return refine(segment, path, 0);
+    }
+
+    /**
+     * finds a path, see {@link #findPath(int, int, int, int, int[])}
+     */
+    public int findPath(Position from, Position to, int[] path) {
+        return findPath(from.getRow(), from.getCol(), to.getRow(), to.getCol(), path);
+    }
+
+    /**
+     * Finds a route and turns all of it into cells, written the same way as by
+     * {@link Pathfinder#findPath(int, int, int, int, int[])}.
+     *
+     * @return the amount of steps in the path, 0 if both cells are the same, or -1 if the
+     *         target cannot be reached
+     */
+    public int findPath(int fromRow, int fromCol, int toRow, int toCol, int[] path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Path buffer must not be null");
+        }
+        int length = findRoute(fromRow, fromCol, toRow, toCol);
+        int written = 0;
+        for (int i = 0; length > 0 && i < waypointCount - 1; i++) {
+            int steps = refine(i, path, written);
+            if (steps < 0) return -1;
+            written += steps;
+        }
+        return length;
+    }
+
+    /**
+     * stops listening to the map, the graph keeps its last state
+     */
+    public void detach() {
+        map.removeListener(this);
+    }
+
+    @Override
+    public void entityAdded(GameEntity entity, int r, int c) {
+        if (entity instanceof GameItem item && item.getBlocksMovement()) {
+            touched(r, c);
+        }
+    }
+
+    @Override
+    public void entityRemoved(GameEntity entity, int r, int c) {
+        if (entity instanceof GameItem item && item.getBlocksMovement()) {
+            touched(r, c);
+        }
+    }
+
+    /**
+     * marks the cluster of the cell dirty, and the cluster across the border if the cell is on one
+     */
+    private void touched(int r, int c) {
+        int cr = r / size;
+        int cc = c / size;
+        markDirty(cr * clusterCols + cc);
+        if (r % size == 0 && cr > 0) markDirty((cr - 1) * clusterCols + cc);
+        if (r % size == size - 1 && cr < clusterRows - 1) markDirty((cr + 1) * clusterCols + cc);
+        if (c % size == 0 && cc > 0) markDirty(cr * clusterCols + cc - 1);
+        if (c % size == size - 1 && cc < clusterCols - 1) markDirty(cr * clusterCols + cc + 1);
+    }
+
+    private void markDirty(int cluster) {
+        if (!dirty[cluster]) {
+            dirty[cluster] = true;
+            dirtyList[dirtyCount++] = cluster;
+        }
+    }
+
+    /**
+     * builds the dirty clusters again: first the entrances on their borders, then their nodes
+     * and at last the distances between the nodes
+     */
+    private void rebuild() {
+        if (dirtyCount == 0) return;
+        for (int i = 0; i < dirtyCount; i++) {
+            int cr = dirtyList[i] / clusterCols;
+            int cc = dirtyList[i] % clusterCols;
+            if (cc > 0) placeVertical(cr, cc - 1);
+            if (cc < clusterCols - 1) placeVertical(cr, cc);
+            if (cr > 0) placeHorizontal(cr - 1, cc);
+            if (cr < clusterRows - 1) placeHorizontal(cr, cc);
+        }
+        for (int i = 0; i < dirtyCount; i++) {
+            collectNodes(dirtyList[i]);
+        }
+        for (int i = 0; i < dirtyCount; i++) {
+            measure(dirtyList[i]);
+            dirty[dirtyList[i]] = false;
+        }
+        dirtyCount = 0;
+    }
+
+    /**
+     * places the entrances on the border between the cluster and the one to its right
+     */
+    private void placeVertical(int cr, int cc) {
+        int x = (cc + 1) * size - 1;
+        int top = cr * size;
+        int bottom = Math.min(top + size, rows);
+        int runStart = -1;
+        for (int r = top; r <= bottom; r++) {
+            if (r < bottom) {
+                sides[r * cols + x] &= ~RIGHT;
+                sides[r * cols + x + 1] &= ~LEFT;
+            }
+            boolean open = r < bottom && map.isWalkable(r, x) && map.isWalkable(r, x + 1);
+            if (open && runStart < 0) {
+                runStart = r;
+            } else if (!open && runStart >= 0) {
+                int runEnd = r - 1;
+                if (runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+                    markVertical(runStart, x);
+                    markVertical(runEnd, x);
+                } else {
+                    markVertical((runStart + runEnd) / 2, x);
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void markVertical(int r, int x) {
+        sides[r * cols + x] |= RIGHT;
+        sides[r * cols + x + 1] |= LEFT;
+    }
+
+    /**
+     * places the entrances on the border between the cluster and the one below it
+     */
+    private void placeHorizontal(int cr, int cc) {
+        int y = (cr + 1) * size - 1;
+        int left = cc * size;
+        int right = Math.min(left + size, cols);
+        int runStart = -1;
+        for (int c = left; c <= right; c++) {
+            if (c < right) {
+                sides[y * cols + c] &= ~DOWN;
+                sides[(y + 1) * cols + c] &= ~UP;
+            }
+            boolean open = c < right && map.isWalkable(y, c) && map.isWalkable(y + 1, c);
+            if (open && runStart < 0) {
+                runStart = c;
+            } else if (!open && runStart >= 0) {
+                int runEnd = c - 1;
+                if (runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+                    markHorizontal(y, runStart);
+                    markHorizontal(y, runEnd);
+                } else {
+                    markHorizontal(y, (runStart + runEnd) / 2);
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void markHorizontal(int y, int c) {
+        sides[y * cols + c] |= DOWN;
+        sides[(y + 1) * cols + c] |= UP;
+    }
+
+    /**
+     * numbers the cells of the cluster that hold a node
+     */
+    private void collectNodes(int cluster) {
+        int top = cluster / clusterCols * size;
+        int left = cluster % clusterCols * size;
+        int bottom = Math.min(top + size, rows);
+        int right = Math.min(left + size, cols);
+        int count = 0;
+        for (int r = top; r < bottom; r++) {
+            for (int c = left; c < right; c++) {
+                int cell = r * cols + c;
+                nodeAt[cell] = sides[cell] != 0 ? count++ : -1;
+            }
+        }
+        int[] found = new int[count];
+        for (int r = top; r < bottom; r++) {
+            for (int c = left; c < right; c++) {
+                int cell = r * cols + c;
+                if (nodeAt[cell] >= 0) {
+                    found[nodeAt[cell]] = cell;
+                }
+            }
+        }
+        nodes[cluster] = found;
+        if (count > startCost.length) {
+            startCost = new int[count];
+            goalCost = new int[count];
+        }
+    }
+
+    /**
+     * finds the walking distance inside the cluster between every pair of its nodes
+     */
+    private void measure(int cluster) {
+        int[] clusterNodes = nodes[cluster];
+        int n = clusterNodes.length;
+        int[] distances = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            search(cluster, clusterNodes[i]);
+            for (int j = 0; j < n; j++) {
+                distances[i * n + j] = localDist[local(clusterNodes[j])];
+            }
+        }
+        costs[cluster] = distances;
+    }
+
+    /**
+     * breadth first search from the cell that never leaves its cluster, the cell itself
+     * is always entered even if something blocks it
+     */
+    private void search(int cluster, int from) {
+        int top = cluster / clusterCols * size;
+        int left = cluster % clusterCols * size;
+        int bottom = Math.min(top + size, rows);
+        int right = Math.min(left + size, cols);
+        Arrays.fill(localDist, -1);
+        int head = 0;
+        int tail = 0;
+        localDist[local(from)] = 0;
+        localParent[local(from)] = from;
+        localQueue[tail++] = from;
+        while (head < tail) {
+            int cell = localQueue[head++];
+            int r = cell / cols;
+            int c = cell % cols;
+            int d = localDist[local(cell)] + 1;
+            if (r > top) tail = visit(cell, cell - cols, r - 1, c, d, tail);
+            if (r < bottom - 1) tail = visit(cell, cell + cols, r + 1, c, d, tail);
+            if (c > left) tail = visit(cell, cell - 1, r, c - 1, d, tail);
+            if (c < right - 1) tail = visit(cell, cell + 1, r, c + 1, d, tail);
+        }
+    }
+
+    private int visit(int from, int cell, int r, int c, int d, int tail) {
+        int l = local(cell);
+        if (localDist[l] >= 0 || !map.isWalkable(r, c)) return tail;
+        localDist[l] = d;
+        localParent[l] = from;
+        localQueue[tail] = cell;
+        return tail + 1;
+    }
+
+    /**
+     * relaxes every edge of the cell in the graph
+     */
+    private void expand(int cell, int start, int goal, int toRow, int toCol) {
+        int g = cost[cell];
+        int cluster = clusterOf(cell);
+        if (cell == start) {
+            int[] startNodes = nodes[startCluster];
+            for (int i = 0; i < startNodes.length; i++) {
+                if (startCost[i] >= 0) reach(startNodes[i], cell, g + startCost[i], toRow, toCol);
+            }
+            if (directCost >= 0) reach(goal, cell, g + directCost, toRow, toCol);
+        }
+        int index = nodeAt[cell];
+        if (index < 0) return;
+
+        int[] clusterNodes = nodes[cluster];
+        int[] distances = costs[cluster];
+        int n = clusterNodes.length;
+        for (int j = 0; j < n; j++) {
+            int d = distances[index * n + j];
+            if (d > 0) reach(clusterNodes[j], cell, g + d, toRow, toCol);
+        }
+        // the node across the border is a step away, both sides of an entrance were open when it was placed
+        if ((sides[cell] & UP) != 0) reach(cell - cols, cell, g + 1, toRow, toCol);
+        if ((sides[cell] & DOWN) != 0) reach(cell + cols, cell, g + 1, toRow, toCol);
+        if ((sides[cell] & LEFT) != 0) reach(cell - 1, cell, g + 1, toRow, toCol);
+        if ((sides[cell] & RIGHT) != 0) reach(cell + 1, cell, g + 1, toRow, toCol);
+        if (cluster == goalCluster && goalCost[index] >= 0) {
+            reach(goal, cell, g + goalCost[index], toRow, toCol);
+        }
+    }
+
+    /**
+     * records that the cell can be reached with the given cost, if that is better than before
+     */
+    private void reach(int cell, int from, int g, int toRow, int toCol) {
+        int seen = generation * 2;
+        if (stamp[cell] == seen + 1) return;
+        if (stamp[cell] == seen && cost[cell] <= g) return;
+        stamp[cell] = seen;
+        cost[cell] = g;
+        parent[cell] = from;
+
+        int f = g + Math.abs(cell / cols - toRow) + Math.abs(cell % cols - toCol);
+        open.push(cell, ((long) f << 32) | (Integer.MAX_VALUE - g));
+    }
+
+    /**
+     * walks back from the target along the parents and keeps the waypoints in order
+     */
+    private int writeRoute(int start, int goal) {
+        int count = 1;
+        for (int cell = goal; cell != start; cell = parent[cell]) {
+            count++;
+        }
+        if (count > waypoints.length) {
+            waypoints = new int[Math.max(count, waypoints.length * 2)];
+        }
+        int i = count;
+        for (int cell = goal; cell != start; cell = parent[cell]) {
+            waypoints[--i] = cell;
+        }
+        waypoints[0] = start;
+        waypointCount = count;
+        return cost[goal];
+    }
+
+    /**
+     * writes the cells of the part of the route into the path, starting at the given offset
+     */
+    private int refine(int segment, int[] path, int offset) {
+        int from = waypoints[segment];
+        int to = waypoints[segment + 1];
+        if (Math.abs(from / cols - to / cols) + Math.abs(from % cols - to % cols) == 1) {
+            if (offset < path.length) {
+                path[offset] = to;
+            }
+            return 1;
+        }
+        search(clusterOf(from), from);
+        int steps = localDist[local(to)];
+        if (steps < 0) return -1;
+        int i = offset + steps;
+        for (int cell = to; cell != from; cell = localParent[local(cell)]) {
+            i--;
+            if (i < path.length) {
+                path[i] = cell;
+            }
+        }
+        return steps;
+    }
+
+    private int clusterOf(int cell) {
+        return cell / cols / size * clusterCols + cell % cols / size;
+    }
+
+    /**
+     * returns the index of the cell inside its cluster
+     */
+    private int local(int cell) {
+        return cell / cols % size * size + cell % cols % size;
+    }
+
+    private void nextGeneration() {
+        if (generation >= Integer.MAX_VALUE / 2 - 1) {
+            Arrays.fill(stamp, 0);
+            generation = 0;
+        }
+        generation++;
+    }
+}
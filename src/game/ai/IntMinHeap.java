@@ -0,0 +1,96 @@
+package game.ai;
+import java.util.Arrays;
+
+/**
+ * A binary min heap of {@code int} values ordered by {@code long} keys, with no boxing.
+ *
+ * <p>
+ * The arrays only grow, so once the heap has been as big as a search needs, clearing
+ * and refilling it allocates nothing. There is no decrease key, a value is simply pushed
+ * again with its better key and the stale entry is skipped by the caller when popped.
+ */
+class IntMinHeap {
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * constructs an empty heap with room for the given amount of entries
+     */
+    IntMinHeap(int capacity) {
+        keys = new long[Math.max(capacity, 2)];
+        values = new int[Math.max(capacity, 2)];
+    }
+
+    /**
+     * adds a value with the given key
+     */
+    void push(int value, long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            keys[i] = keys[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    /**
+     * removes the value with the smallest key and returns it
+     */
+    int pop() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        int top = values[0];
+        size--;
+        if (size > 0) {
+            long key = keys[size];
+            int value = values[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (key <= keys[child]) break;
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+        return top;
+    }
+
+    /**
+     * checks if the heap has no entries
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * getter for the amount of entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * removes every entry, keeping the arrays
+     */
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,273 @@
+package game.ai;
+import game.map.GameMap;
+import game.map.Position;
+import game.map.RegionLabels;
+import java.util.Arrays;
+
+/**
+ * Finds shortest paths between cells of a {@link GameMap}, moving up, down, left and right.
+ *
+ * <p>
+ * Two searches are offered. {@link #findPath} is a plain A* with the manhattan distance
+ * as its heuristic. {@link #findJumpPath} is jump point search, which on a grid where
+ * every step costs the same skips over the long runs of open cells A* would have to
+ * expand one by one, and returns a path of the same length.
+ *
+ * <p>
+ * All the search state lives in arrays that are allocated once, one slot per cell, and
+ * reused by every query. Instead of clearing them, every query gets a new generation
+ * number and a slot only counts when it is stamped with the current one, so a query
+ * allocates nothing. The map is read live, so walls that appear or disappear between
+ * queries are taken into account. When the map keeps {@link RegionLabels}, a target in
+ * another region is turned down right away.
+ *
+ * <p>
+ * A pathfinder is not thread safe, every thread needs its own.
+ */
+public class Pathfinder {
+
+    private final GameMap map;
+    private final int rows;
+    private final int cols;
+    private final int[] cost;
+    private final int[] parent;
+    private final int[] stamp;
+    private final IntMinHeap open;
+    private int generation;
+    private int expanded;
+
+    /**
+     * constructs a pathfinder for the given map
+     */
+    public Pathfinder(GameMap map) {
+        if (map == null) {
+            throw new IllegalArgumentException("Map must not be null");
+        }
+        this.map = map;
+        this.rows = map.getRows();
+        this.cols = map.getCols();
+        this.cost = new int[rows * cols];
+        this.parent = new int[rows * cols];
+        this.stamp = new int[rows * cols];
+        this.open = new IntMinHeap(1024);
+    }
+
+    /**
+     * finds a path with A*, see {@link #findPath(int, int, int, int, int[])}
+     */
+    public int findPath(Position from, Position to, int[] path) {
+        return findPath(from.getRow(), from.getCol(), to.getRow(), to.getCol(), path);
+    }
+
+    /**
+     * Finds a shortest path with A*.
+     *
+     * @param path receives the cells of the path as {@code row * cols + col}, from the first
+     *             step to the target, the start itself is left out. If the path is longer than
+     *             the array, only its first cells are written
+     * @return the amount of steps in the path, 0 if both cells are the same, or -1 if the
+     *         target cannot be reached
+     */
+    public int findPath(int fromRow, int fromCol, int toRow, int toCol, int[] path) {
+        return search(fromRow, fromCol, toRow, toCol, path, false);
+    }
+
+    /**
+     * finds a path with jump point search, see {@link #findJumpPath(int, int, int, int, int[])}
+     */
+    public int findJumpPath(Position from, Position to, int[] path) {
+        return findJumpPath(from.getRow(), from.getCol(), to.getRow(), to.getCol(), path);
+    }
+
+    /**
+     * Finds a shortest path with jump point search. The path is written the same way as by
+     * {@link #findPath(int, int, int, int, int[])}, with every cell along it and not only the
+     * jump points.
+     *
+     * @return the amount of steps in the path, 0 if both cells are the same, or -1 if the
+     *         target cannot be reached
+     */
+    public int findJumpPath(int fromRow, int fromCol, int toRow, int toCol, int[] path) {
+        return search(fromRow, fromCol, toRow, toCol, path, true);
+    }
+
+    /**
+     * returns the amount of cells the last query took off the open list
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    private int search(int fromRow, int fromCol, int toRow, int toCol, int[] path, boolean jump) {
+        if (path == null) {
+            throw new IllegalArgumentException("Path buffer must not be null");
+        }
+        expanded = 0;
+        if (!map.isInside(fromRow, fromCol) || !map.isWalkable(toRow, toCol)) {
+            return -1;
+        }
+        int start = fromRow * cols + fromCol;
+        int goal = toRow * cols + toCol;
+        if (start == goal) {
+            return 0;
+        }
+        RegionLabels regions = map.getRegions();
+        if (regions != null && map.isWalkable(fromRow, fromCol) && !regions.sameRegion(fromRow, fromCol, toRow, toCol)) {
+            return -1; // the target is cut off, no need to flood the whole region to find that out
+        }
+
+        nextGeneration();
+        int seen = generation * 2;
+        int closed = seen + 1;
+        open.clear();
+        reach(start, start, 0, toRow, toCol);
+
+        while (!open.isEmpty()) {
+            int cell = open.pop();
+            if (stamp[cell] == closed) continue; // a stale entry, the cell was reached cheaper
+            stamp[cell] = closed;
+            expanded++;
+
+            if (cell == goal) {
+                return writePath(start, goal, path);
+            }
+            if (jump) {
+                expandJumps(cell, toRow, toCol);
+            } else {
+                expandNeighbours(cell, toRow, toCol);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * records that the cell can be reached with the given cost, if that is better than before
+     */
+    private void reach(int cell, int from, int g, int toRow, int toCol) {
+        int seen = generation * 2;
+        if (stamp[cell] == seen + 1) return;
+        if (stamp[cell] == seen && cost[cell] <= g) return;
+        stamp[cell] = seen;
+        cost[cell] = g;
+        parent[cell] = from;
+
+        int f = g + Math.abs(cell / cols - toRow) + Math.abs(cell % cols - toCol);
+        // on equal f prefer the cell further from the start, it is closer to the target
+        open.push(cell, ((long) f << 32) | (Integer.MAX_VALUE - g));
+    }
+
+    private void expandNeighbours(int cell, int toRow, int toCol) {
+        int r = cell / cols;
+        int c = cell % cols;
+        int g = cost[cell] + 1;
+        if (map.isWalkable(r - 1, c)) reach(cell - cols, cell, g, toRow, toCol);
+        if (map.isWalkable(r + 1, c)) reach(cell + cols, cell, g, toRow, toCol);
+        if (map.isWalkable(r, c - 1)) reach(cell - 1, cell, g, toRow, toCol);
+        if (map.isWalkable(r, c + 1)) reach(cell + 1, cell, g, toRow, toCol);
+    }
+
+    /**
+     * Jumps from the cell in every direction that is not pruned. Coming in straight, only
+     * going on ahead and turning to either side can lead to a shorter path, the start
+     * jumps in all four directions.
+     */
+    private void expandJumps(int cell, int toRow, int toCol) {
+        int r = cell / cols;
+        int c = cell % cols;
+        int p = parent[cell];
+        int dr = Integer.signum(p / cols == r ? 0 : r - p / cols);
+        int dc = Integer.signum(p % cols == c ? 0 : c - p % cols);
+
+        if (dr == 0 && dc == 0) {
+            jumpFrom(cell, r, c, -1, 0, toRow, toCol);
+            jumpFrom(cell, r, c, 1, 0, toRow, toCol);
+            jumpFrom(cell, r, c, 0, -1, toRow, toCol);
+            jumpFrom(cell, r, c, 0, 1, toRow, toCol);
+        } else if (dc != 0) {
+            jumpFrom(cell, r, c, -1, 0, toRow, toCol);
+            jumpFrom(cell, r, c, 1, 0, toRow, toCol);
+            jumpFrom(cell, r, c, 0, dc, toRow, toCol);
+        } else {
+            jumpFrom(cell, r, c, 0, -1, toRow, toCol);
+            jumpFrom(cell, r, c, 0, 1, toRow, toCol);
+            jumpFrom(cell, r, c, dr, 0, toRow, toCol);
+        }
+    }
+
+    private void jumpFrom(int cell, int r, int c, int dr, int dc, int toRow, int toCol) {
+        int point = jump(r + dr, c + dc, dr, dc, toRow, toCol);
+        if (point >= 0) {
+            int distance = Math.abs(point / cols - r) + Math.abs(point % cols - c);
+            reach(point, cell, cost[cell] + distance, toRow, toCol);
+        }
+    }
+
+    /**
+     * Walks in a straight line until it finds a jump point: the target, a cell with a
+     * forced neighbour (a side opening that was closed one step back), or, when walking up
+     * or down, a cell from which a sideways walk finds a jump point.
+     * @return the index of the jump point, or -1 if the walk runs into a blocked cell
+     */
+    private int jump(int r, int c, int dr, int dc, int toRow, int toCol) {
+        while (map.isWalkable(r, c)) {
+            if (r == toRow && c == toCol) {
+                return r * cols + c;
+            }
+            if (dc != 0) {
+                if ((map.isWalkable(r - 1, c) && !map.isWalkable(r - 1, c - dc))
+                        || (map.isWalkable(r + 1, c) && !map.isWalkable(r + 1, c - dc))) {
+                    return r * cols + c;
+                }
+            } else {
+                if ((map.isWalkable(r, c - 1) && !map.isWalkable(r - dr, c - 1))
+                        || (map.isWalkable(r, c + 1) && !map.isWalkable(r - dr, c + 1))) {
+                    return r * cols + c;
+                }
+                if (jump(r, c - 1, 0, -1, toRow, toCol) >= 0 || jump(r, c + 1, 0, 1, toRow, toCol) >= 0) {
+                    return r * cols + c;
+                }
+            }
+            r += dr;
+            c += dc;
+        }
+        return -1;
+    }
+
+    /**
+     * walks back from the target along the parents, which are always in a straight line,
+     * and writes every cell on the way
+     */
+    private int writePath(int start, int goal, int[] path) {
+        int length = cost[goal];
+        int i = length;
+        int cell = goal;
+        while (cell != start) {
+            int p = parent[cell];
+            int step;
+            if (p / cols == cell / cols) {
+                step = p < cell ? -1 : 1;
+            } else {
+                step = p < cell ? -cols : cols;
+            }
+            while (cell != p) {
+                i--;
+                if (i < path.length) {
+                    path[i] = cell;
+                }
+                cell += step;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * moves to the next generation, the stamps are only cleared when the counter would overflow
+     */
+    private void nextGeneration() {
+        if (generation >= Integer.MAX_VALUE / 2 - 1) {
+            Arrays.fill(stamp, 0);
+            generation = 0;
+        }
+        generation++;
+    }
+}
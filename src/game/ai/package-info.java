@@ -0,0 +1,5 @@
+/**
+ * This package includes the services the computer controlled characters use to find their way around the map.
+ * @version 1.0
+ */
+package game.ai;
@@ -0,0 +1,54 @@
+package game.bench;
+import game.characters.Warrior;
+import game.core.GameEntity;
+import game.core.Layer;
+import game.map.Direction;
+import game.map.GameMap;
+import game.map.MoveBatch;
+import game.map.StorageMode;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Measures {@link GameMap#applyMoves} with a growing amount of enemies moving in random directions.
+ *
+ * <p>
+ * Every tick rebuilds the batch from where the enemies stand now, the same way a game loop
+ * would, and only {@code applyMoves} is timed.
+ */
+public class BatchMoveBenchmark {
+
+    private static final int SIZE = 1000;
+    private static final int[] MOVERS = {1_000, 10_000, 100_000};
+    private static final int TICKS = 50;
+
+    public static void main(String[] args) {
+        GameMap map = new GameMap(SIZE, SIZE, new Warrior("bench"), StorageMode.ARRAY, 7L);
+        List<GameEntity> actors = map.getEntities(Layer.ACTOR);
+        Direction[] directions = Direction.values();
+        MoveBatch batch = new MoveBatch();
+        SplittableRandom rand = new SplittableRandom(7L);
+
+        System.out.printf("%d cores available, %d actors on the map%n",
+                Runtime.getRuntime().availableProcessors(), actors.size());
+        System.out.printf("%-10s %12s %14s%n", "movers", "ms/tick", "moved/tick");
+        for (int movers : MOVERS) {
+            long elapsed = 0;
+            long moved = 0;
+            for (int tick = -TICKS / 5; tick < TICKS; tick++) {
+                batch.clear();
+                for (int i = 0; i < movers && i < actors.size(); i++) {
+                    batch.add(actors.get(i), directions[rand.nextInt(directions.length)]);
+                }
+                long start = System.nanoTime();
+                int made = map.applyMoves(batch);
+                // the first ticks only warm up
+                if (tick >= 0) {
+                    elapsed += System.nanoTime() - start;
+                    moved += made;
+                }
+            }
+            System.out.printf("%-10d %12.3f %14d%n", movers, elapsed / 1e6 / TICKS, moved / TICKS);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package game.bench;
+import game.characters.Dragon;
+import game.characters.Enemy;
+import game.characters.EnemyStore;
+import game.characters.Goblin;
+import game.characters.Orc;
+import game.map.Position;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Compares a pass over every enemy done through the enemy objects with the same pass done
+ * over the arrays of their {@link EnemyStore}.
+ *
+ * <p>
+ * The enemies are shuffled in their list, the way enemies end up after they were created
+ * chunk by chunk and moved around, so going through the objects jumps around the store
+ * while the store is read front to back. The amount of enemies can be given as the first
+ * argument.
+ */
+public class EnemyStoreBenchmark {
+
+    private static final int DEFAULT_ENEMIES = 2_000_000;
+    private static final int PASSES = 20;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ENEMIES;
+        SplittableRandom rand = new SplittableRandom(7L);
+
+        long before = usedMemory();
+        EnemyStore store = new EnemyStore(count);
+        List<Enemy> enemies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Enemy enemy = switch (i % 3) {
+                case 0 -> new Goblin(store, rand);
+                case 1 -> new Orc(store, rand);
+                default -> new Dragon(store, rand);
+            };
+            enemy.setPosition(new Position(rand.nextInt(1000), rand.nextInt(1000)));
+            enemies.add(enemy);
+        }
+        long after = usedMemory();
+        Collections.shuffle(enemies, new Random(7L));
+
+        // warm up both paths before timing them
+        for (int i = 0; i < PASSES / 2; i++) {
+            objectPass(enemies);
+            store.healAll(1);
+            store.countNear(500, 500, 100);
+        }
+
+        long start = System.nanoTime();
+        int checksum = 0;
+        for (int i = 0; i < PASSES; i++) {
+            checksum += objectPass(enemies);
+        }
+        double objectNs = (System.nanoTime() - start) / (double) PASSES / count;
+
+        start = System.nanoTime();
+        for (int i = 0; i < PASSES; i++) {
+            store.healAll(1);
+            checksum += store.countNear(500, 500, 100);
+        }
+        double storeNs = (System.nanoTime() - start) / (double) PASSES / count;
+
+        System.out.printf("%d enemies, about %d bytes each with their objects%n", count, (after - before) / count);
+        System.out.printf("heal and count near: objects %.2f ns/enemy, store %.2f ns/enemy (%d)%n",
+                objectNs, storeNs, checksum);
+    }
+
+    /**
+     * heals every living enemy and counts the ones near the middle, through the objects
+     */
+    private static int objectPass(List<Enemy> enemies) {
+        int near = 0;
+        for (Enemy enemy : enemies) {
+            if (!enemy.isDead()) {
+                enemy.heal(1);
+                Position pos = enemy.getPosition();
+                if (Math.abs(pos.getRow() - 500) + Math.abs(pos.getCol() - 500) <= 100) near++;
+            }
+        }
+        return near;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
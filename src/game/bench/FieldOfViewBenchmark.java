@@ -0,0 +1,65 @@
+package game.bench;
+import game.characters.Warrior;
+import game.map.CaveGenerator;
+import game.map.GameMap;
+import game.map.Position;
+import game.map.StorageMode;
+import java.util.SplittableRandom;
+
+/**
+ * Measures {@link GameMap#revealNearby} with and without line of sight for a growing vision radius.
+ *
+ * <p>
+ * The reveals are made from random open cells of a cave map, so the shadowcasting has
+ * walls to work around. Both ways only visit the cells around the player, so the time
+ * should follow the area of the view.
+ */
+public class FieldOfViewBenchmark {
+
+    private static final int[] RADII = {2, 8, 20};
+    private static final int SIZE = 1000;
+    private static final int SPOTS = 1024;
+    private static final int CALLS = 200_000;
+
+    public static void main(String[] args) {
+        GameMap map = new GameMap(SIZE, SIZE, new Warrior("bench"), StorageMode.ARRAY, 7L, new CaveGenerator());
+        Position[] spots = pickSpots(map);
+
+        System.out.printf("%-8s %18s %18s%n", "radius", "diamond ns/call", "shadowcast ns/call");
+        for (int radius : RADII) {
+            map.setVisionRadius(radius);
+            map.setLineOfSight(false);
+            double diamond = run(map, spots);
+            map.setLineOfSight(true);
+            double shadowcast = run(map, spots);
+            System.out.printf("%-8d %18.1f %18.1f%n", radius, diamond, shadowcast);
+        }
+    }
+
+    private static Position[] pickSpots(GameMap map) {
+        SplittableRandom rand = new SplittableRandom(7L);
+        Position[] spots = new Position[SPOTS];
+        for (int i = 0; i < SPOTS; i++) {
+            int r;
+            int c;
+            do {
+                r = rand.nextInt(SIZE);
+                c = rand.nextInt(SIZE);
+            } while (!map.isWalkable(r, c));
+            spots[i] = new Position(r, c);
+        }
+        return spots;
+    }
+
+    private static double run(GameMap map, Position[] spots) {
+        // warm up before timing
+        for (int i = 0; i < CALLS / 10; i++) {
+            map.revealNearby(spots[i & (SPOTS - 1)]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            map.revealNearby(spots[i & (SPOTS - 1)]);
+        }
+        return (System.nanoTime() - start) / (double) CALLS;
+    }
+}
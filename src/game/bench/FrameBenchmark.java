@@ -0,0 +1,108 @@
+package game.bench;
+import game.characters.Warrior;
+import game.map.GameMap;
+import game.render.FrameRenderer;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Measures how long it takes to build and write a full frame of the map.
+ *
+ * <p>
+ * The frame renderer is compared with printing every cell on its own, which is how
+ * the map used to be drawn. Both write to a stream that only counts bytes and write
+ * calls, so the console itself is not measured.
+ */
+public class FrameBenchmark {
+
+    private static final int[] SIZES = {50, 200, 1000};
+    private static final int FRAMES = 50;
+
+    public static void main(String[] args) {
+        System.out.printf("%-6s %-10s %14s %14s %14s %14s%n",
+                "size", "renderer", "build us", "render us", "bytes/frame", "writes/frame");
+        for (int size : SIZES) {
+            Warrior player = new Warrior("bench");
+            GameMap map = new GameMap(size, size, player);
+            run(size, map, player);
+        }
+    }
+
+    private static void run(int size, GameMap map, Warrior player) {
+        CountingStream counter = new CountingStream();
+        PrintStream out = new PrintStream(counter, false);
+        FrameRenderer renderer = new FrameRenderer(out);
+        int viewer = map.getViewerId(player);
+
+        for (int i = 0; i < FRAMES; i++) {
+            renderer.render(map, player);
+            perCell(map, viewer, out);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            renderer.buildFrame(map, player);
+        }
+        long build = System.nanoTime() - start;
+
+        counter.reset();
+        start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            renderer.render(map, player);
+        }
+        long render = System.nanoTime() - start;
+        print(size, "frame", build, render, counter);
+
+        counter.reset();
+        start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            perCell(map, viewer, out);
+        }
+        long legacy = System.nanoTime() - start;
+        print(size, "per cell", legacy, legacy, counter);
+    }
+
+    /**
+     * the old way of drawing, one print call per cell
+     */
+    private static void perCell(GameMap map, int viewer, PrintStream out) {
+        for (int r = 0; r < map.getRows(); r++) {
+            for (int c = 0; c < map.getCols(); c++) {
+                out.print(map.symbolAt(viewer, r, c) + " ");
+            }
+            out.println();
+        }
+        out.flush();
+    }
+
+    private static void print(int size, String name, long build, long render, CountingStream counter) {
+        System.out.printf("%-6d %-10s %14.1f %14.1f %14d %14d%n", size, name,
+                build / 1000.0 / FRAMES, render / 1000.0 / FRAMES,
+                counter.bytes / FRAMES, counter.writes / FRAMES);
+    }
+
+    /**
+     * an output stream that throws away what it gets and only counts it
+     */
+    private static class CountingStream extends OutputStream {
+        private long bytes;
+        private long writes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            writes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            writes++;
+        }
+
+        private void reset() {
+            bytes = 0;
+            writes = 0;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package game.bench;
+import game.characters.Warrior;
+import game.map.GameMap;
+import game.map.Position;
+import game.map.StorageMode;
+
+/**
+ * Compares the hash map layout of {@link GameMap} with the dense array layout.
+ *
+ * <p>
+ * For every map size it reports the heap used per cell (entities included) and
+ * the average time of an {@code isPositionFree} and {@code getEntities} lookup.
+ */
+public class GridStorageBenchmark {
+
+    private static final int[] SIZES = {100, 500, 1000};
+    private static final int ROUNDS = 5;
+
+    // keeps the lookups from being optimized away
+    private static volatile int sink;
+
+    public static void main(String[] args) {
+        System.out.printf("%-6s %-6s %14s %16s %16s%n", "size", "mode", "bytes/cell", "free ns/lookup", "get ns/lookup");
+        for (int size : SIZES) {
+            for (StorageMode mode : StorageMode.values()) {
+                run(size, mode);
+            }
+        }
+    }
+
+    private static void run(int size, StorageMode mode) {
+        long before = usedMemory();
+        GameMap map = new GameMap(size, size, new Warrior("bench"), mode);
+        long after = usedMemory();
+        double bytesPerCell = (after - before) / (double) (size * size);
+
+        Position[] probes = new Position[size * size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                probes[r * size + c] = new Position(r, c);
+            }
+        }
+
+        long free = 0;
+        long get = 0;
+        int found = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (Position p : probes) {
+                if (map.isPositionFree(p)) found++;
+            }
+            free += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (Position p : probes) {
+                found += map.getEntities(p).size();
+            }
+            get += System.nanoTime() - start;
+        }
+
+        sink = found;
+
+        double lookups = (double) ROUNDS * probes.length;
+        System.out.printf("%-6d %-6s %14.1f %16.1f %16.1f%n", size, mode, bytesPerCell,
+                free / lookups, get / lookups);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
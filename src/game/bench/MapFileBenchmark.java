@@ -0,0 +1,60 @@
+package game.bench;
+import game.characters.Warrior;
+import game.map.CaveGenerator;
+import game.map.GameMap;
+import game.map.MapFile;
+import game.map.Position;
+import game.map.StorageMode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures saving a big map to a {@link MapFile} and loading it again.
+ *
+ * <p>
+ * The map is a chunked cave map, written chunk by chunk. Loading only maps the file, so
+ * the time to open it and get a playable chunked map should not depend on the size of
+ * the map, only the chunks that are touched afterwards are read. The side of the map can
+ * be given as the first argument, 10000 gives a map of 100 million cells.
+ */
+public class MapFileBenchmark {
+
+    private static final int DEFAULT_SIDE = 4000;
+    private static final int LOOKS = 100_000;
+
+    public static void main(String[] args) throws IOException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIDE;
+        Path path = Files.createTempFile("bench", ".map");
+        try {
+            GameMap map = new GameMap(side, side, new Warrior("bench"), StorageMode.CHUNKED, 7L, new CaveGenerator());
+            long start = System.nanoTime();
+            MapFile.write(map, path);
+            double writeMs = (System.nanoTime() - start) / 1e6;
+
+            start = System.nanoTime();
+            MapFile file = MapFile.open(path);
+            Warrior player = new Warrior("bench");
+            GameMap loaded = file.load(player, StorageMode.CHUNKED);
+            double loadMs = (System.nanoTime() - start) / 1e6;
+
+            // reads around the player only touch the chunks nearby
+            Position pos = player.getPosition();
+            start = System.nanoTime();
+            int walkable = 0;
+            for (int i = 0; i < LOOKS; i++) {
+                int r = Math.floorMod(pos.getRow() + (i % 200) - 100, side);
+                int c = Math.floorMod(pos.getCol() + (i / 200 % 200) - 100, side);
+                if (loaded.isWalkable(r, c)) walkable++;
+            }
+            double lookNs = (System.nanoTime() - start) / (double) LOOKS;
+
+            System.out.printf("cells %d, file %d MB, %d entity records%n",
+                    (long) side * side, Files.size(path) >> 20, file.getEntityCount());
+            System.out.printf("write %.1f ms, open and load %.1f ms, %.1f ns per cell read near the player (%d walkable)%n",
+                    writeMs, loadMs, lookNs, walkable);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
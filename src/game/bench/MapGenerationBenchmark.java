@@ -0,0 +1,58 @@
+package game.bench;
+import game.core.GameEntity;
+import game.map.BspGenerator;
+import game.map.CaveGenerator;
+import game.map.DungeonGenerator;
+import game.map.MapGenerator;
+import game.map.ScatterGenerator;
+
+/**
+ * Measures {@link MapGenerator#generate} for every generator with a growing amount of threads.
+ *
+ * <p>
+ * Next to the time it prints a checksum of the generated map, which has to be the
+ * same for every thread count, since the content only depends on the seed.
+ */
+public class MapGenerationBenchmark {
+
+    private static final int SIZE = 2000;
+    private static final long SEED = 7L;
+    private static final int[] THREADS = {1, 2, 4};
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        System.out.printf("%d cores available%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-20s %-8s %12s %20s%n", "generator", "threads", "ms/map", "checksum");
+        DungeonGenerator[] generators = {new ScatterGenerator(), new CaveGenerator(), new BspGenerator()};
+        for (DungeonGenerator generator : generators) {
+            for (int threads : THREADS) {
+                run(generator, threads);
+            }
+        }
+    }
+
+    private static void run(DungeonGenerator generator, int threads) {
+        // warm up before timing
+        MapGenerator.generate(SIZE, SIZE, SEED, generator, threads);
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            checksum = checksum(MapGenerator.generate(SIZE, SIZE, SEED, generator, threads));
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%-20s %-8d %12.1f %20x%n", generator.getClass().getSimpleName(), threads,
+                elapsed / 1e6 / RUNS, checksum);
+    }
+
+    private static long checksum(GameEntity[] cells) {
+        long sum = 0;
+        for (int i = 0; i < cells.length; i++) {
+            GameEntity entity = cells[i];
+            int code = entity == null ? 0 : entity.getDisplaySymbol().hashCode() * 31 + entity.toString().hashCode();
+            sum = sum * 1_000_003 + code;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,92 @@
+package game.bench;
+import game.ai.HierarchicalPathfinder;
+import game.ai.Pathfinder;
+import game.characters.Warrior;
+import game.map.CaveGenerator;
+import game.map.GameMap;
+import game.map.StorageMode;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Measures {@link Pathfinder} and {@link HierarchicalPathfinder} queries per second between
+ * random cells of cave maps.
+ *
+ * <p>
+ * Next to the speed it prints the bytes allocated per query, which should be zero once
+ * the open list has grown to the size the queries need. The hierarchical search is timed
+ * twice, finding only the route of waypoints, and turning the whole route into cells.
+ */
+public class PathfindingBenchmark {
+
+    private static final int[] SIZES = {100, 500, 1000, 2000, 4000};
+    private static final int QUERIES = 200;
+    private static final long SEED = 7L;
+
+    private static final int ASTAR = 0;
+    private static final int JPS = 1;
+    private static final int ROUTE = 2;
+    private static final int HIERARCHICAL = 3;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-6s %12s %14s %12s%n", "size", "search", "queries/s", "expanded/query", "bytes/query");
+        for (int size : SIZES) {
+            GameMap map = new GameMap(size, size, new Warrior("bench"), StorageMode.ARRAY, SEED, new CaveGenerator());
+            Pathfinder pathfinder = new Pathfinder(map);
+            HierarchicalPathfinder hierarchical = new HierarchicalPathfinder(map);
+            int[] queries = pickQueries(map, size);
+            int[] path = new int[size * size];
+
+            run(size, "A*", pathfinder, hierarchical, queries, path, ASTAR);
+            run(size, "JPS", pathfinder, hierarchical, queries, path, JPS);
+            run(size, "route", pathfinder, hierarchical, queries, path, ROUTE);
+            run(size, "HPA*", pathfinder, hierarchical, queries, path, HIERARCHICAL);
+        }
+    }
+
+    /**
+     * picks pairs of walkable cells, as {fromRow, fromCol, toRow, toCol} runs
+     */
+    private static int[] pickQueries(GameMap map, int size) {
+        SplittableRandom rand = new SplittableRandom(SEED);
+        int[] queries = new int[QUERIES * 4];
+        for (int i = 0; i < queries.length; i += 2) {
+            do {
+                queries[i] = rand.nextInt(size);
+                queries[i + 1] = rand.nextInt(size);
+            } while (!map.isWalkable(queries[i], queries[i + 1]));
+        }
+        return queries;
+    }
+
+    private static void run(int size, String name, Pathfinder pathfinder, HierarchicalPathfinder hierarchical,
+                            int[] queries, int[] path, int search) {
+        // one pass to warm up and to grow the open list
+        search(pathfinder, hierarchical, queries, path, search);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long expanded = search(pathfinder, hierarchical, queries, path, search);
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+
+        System.out.printf("%-8d %-6s %12.1f %14d %12d%n", size, name, QUERIES / (elapsed / 1e9),
+                expanded / QUERIES, allocated / QUERIES);
+    }
+
+    private static long search(Pathfinder pathfinder, HierarchicalPathfinder hierarchical,
+                               int[] queries, int[] path, int search) {
+        long expanded = 0;
+        for (int i = 0; i < queries.length; i += 4) {
+            switch (search) {
+                case ASTAR -> pathfinder.findPath(queries[i], queries[i + 1], queries[i + 2], queries[i + 3], path);
+                case JPS -> pathfinder.findJumpPath(queries[i], queries[i + 1], queries[i + 2], queries[i + 3], path);
+                case ROUTE -> hierarchical.findRoute(queries[i], queries[i + 1], queries[i + 2], queries[i + 3]);
+                default -> hierarchical.findPath(queries[i], queries[i + 1], queries[i + 2], queries[i + 3], path);
+            }
+            expanded += search <= JPS ? pathfinder.getExpanded() : hierarchical.getExpanded();
+        }
+        return expanded;
+    }
+}
@@ -0,0 +1,58 @@
+package game.bench;
+import game.characters.Warrior;
+import game.map.GameMap;
+import game.map.Position;
+import game.map.StorageMode;
+
+/**
+ * Measures {@link GameMap#revealNearby} and {@link GameMap#revealStep} on growing maps.
+ *
+ * <p>
+ * Both only visit the cells around the player, so the time per call should stay
+ * the same no matter how big the map is.
+ */
+public class RevealBenchmark {
+
+    private static final int[] SIZES = {100, 500, 1000, 2000};
+    private static final int CALLS = 1_000_000;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-8s %18s %18s%n", "size", "mode", "full ns/call", "step ns/call");
+        for (int size : SIZES) {
+            run(size, StorageMode.ARRAY);
+        }
+        run(20_000, StorageMode.CHUNKED);
+    }
+
+    private static void run(int size, StorageMode mode) {
+        GameMap map = new GameMap(size, size, new Warrior("bench"), mode, 7L);
+        // the incremental step only exists for the plain diamond, see FieldOfViewBenchmark for line of sight
+        map.setLineOfSight(false);
+        Position a = new Position(size / 2, size / 2);
+        Position b = new Position(size / 2, size / 2 + 1);
+
+        // warm up both paths before timing them
+        for (int i = 0; i < CALLS / 10; i++) {
+            map.revealNearby(a);
+            map.revealStep(a, b);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            map.revealNearby((i & 1) == 0 ? a : b);
+        }
+        long full = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            if ((i & 1) == 0) {
+                map.revealStep(a, b);
+            } else {
+                map.revealStep(b, a);
+            }
+        }
+        long step = System.nanoTime() - start;
+
+        System.out.printf("%-8d %-8s %18.1f %18.1f%n", size, mode, full / (double) CALLS, step / (double) CALLS);
+    }
+}
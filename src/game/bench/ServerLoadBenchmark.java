@@ -0,0 +1,153 @@
+package game.bench;
+import game.server.GameServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many games one {@link GameServer} holds at once, and how long a turn takes
+ * for a client while all of them are played.
+ *
+ * <p>
+ * The server and the clients run in the same process. Every client connects, picks a
+ * class and a small map, waits until all clients are connected and then plays its turns
+ * as fast as it can, walking back and forth. The latency of a turn is the time from
+ * sending the command until the prompt of the next turn arrived. Games that end early,
+ * because the player died, simply play fewer turns.
+ *
+ * <p>
+ * Arguments: the amount of sessions (1000), the turns per session (50), and {@code unix}
+ * to connect through a Unix domain socket instead of TCP.
+ */
+public class ServerLoadBenchmark {
+
+    private static final int SIDE = 16;
+    private static final String PROMPT = "Choose :";
+    private static final String[] MOVES = {"move\nup\n", "move\ndown\n", "move\nleft\n", "move\nright\n"};
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int turns = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        boolean unix = args.length > 2 && args[2].equals("unix");
+
+        Path socket = unix ? Files.createTempDirectory("bench").resolve("game.sock") : null;
+        SocketAddress bind = unix ? UnixDomainSocketAddress.of(socket) : new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (GameServer server = new GameServer(bind)) {
+            server.start();
+            SocketAddress address = server.getLocalAddress();
+            ExecutorService virtual = GameServer.newVirtualExecutor();
+            ExecutorService clients = virtual != null ? virtual : Executors.newCachedThreadPool();
+
+            long[][] latencies = new long[sessions][];
+            CountDownLatch connected = new CountDownLatch(sessions);
+            CountDownLatch done = new CountDownLatch(sessions);
+            long start = System.nanoTime();
+            for (int i = 0; i < sessions; i++) {
+                int session = i;
+                clients.execute(() -> {
+                    try {
+                        latencies[session] = play(address, unix, session, turns, connected);
+                    } catch (IOException | InterruptedException e) {
+                        latencies[session] = new long[0];
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            clients.shutdown();
+            clients.awaitTermination(1, TimeUnit.SECONDS);
+
+            int count = 0;
+            for (long[] session : latencies) count += session.length;
+            long[] all = new long[count];
+            int at = 0;
+            for (long[] session : latencies) {
+                System.arraycopy(session, 0, all, at, session.length);
+                at += session.length;
+            }
+            Arrays.sort(all);
+
+            System.out.printf("%s, %s threads, %d sessions, %d at once%n", unix ? "unix socket" : "tcp",
+                    server.isVirtual() ? "virtual" : "platform", server.getTotalSessions(), server.getPeakSessions());
+            System.out.printf("%d turns in %.1f s, %.0f turns/s, %d sessions failed%n", count, seconds, count / seconds,
+                    server.getFailedSessions());
+            if (server.getLastFailure() != null) {
+                System.out.println("last failure: " + server.getLastFailure());
+            }
+            if (count > 0) {
+                System.out.printf("turn latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                        all[count / 2] / 1e6, all[(int) (count * 0.99)] / 1e6, all[count - 1] / 1e6);
+            }
+        } finally {
+            if (socket != null) {
+                Files.deleteIfExists(socket);
+                Files.deleteIfExists(socket.getParent());
+            }
+        }
+    }
+
+    /**
+     * plays one session and returns the latency of every turn it played, in nanoseconds
+     */
+    private static long[] play(SocketAddress address, boolean unix, int session, int turns, CountDownLatch connected)
+            throws IOException, InterruptedException {
+        boolean ready = false;
+        try (SocketChannel channel = unix ? SocketChannel.open(StandardProtocolFamily.UNIX) : SocketChannel.open()) {
+            channel.connect(address);
+            BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            OutputStream out = Channels.newOutputStream(channel);
+
+            send(out, "bot" + session + "\n" + (session % 3 + 1) + "\n" + SIDE + "\n" + SIDE + "\n");
+            boolean alive = awaitPrompt(in);
+            ready = true;
+            connected.countDown();
+            connected.await(); // every session is open before the turns start
+
+            long[] latencies = new long[turns];
+            int played = 0;
+            while (alive && played < turns) {
+                long start = System.nanoTime();
+                send(out, MOVES[played % 2 + (session & 1) * 2]);
+                alive = awaitPrompt(in);
+                if (alive) latencies[played++] = System.nanoTime() - start;
+            }
+            if (alive) send(out, "exit\n");
+            return Arrays.copyOf(latencies, played);
+        } finally {
+            if (!ready) connected.countDown(); // a session that could not connect must not hold the others up
+        }
+    }
+
+    private static void send(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * reads until the prompt of the next turn, returns false if the game ended first
+     */
+    private static boolean awaitPrompt(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith(PROMPT)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * This package includes small stand alone benchmarks for the game's hot paths, each one is run from its main method.
+ * @version 1.0
+ */
+package game.bench;
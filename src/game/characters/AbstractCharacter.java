@@ -1,8 +1,9 @@
 package game.characters;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
 import game.combat.Combatant;
 import game.core.GameEntity;
+import game.core.Layer;
 import game.map.Position;
 
 
@@ -21,72 +22,93 @@ import game.map.Position;
  * <p>
  * Health is clamped between 0 and 100. Attack power is initialized randomly between 4 and 14.
  * The base evasion chance is 25%.
+ *
+ * <p>
+ * The class holds no state itself, the stats are kept by the subclasses: a
+ * {@link PlayerCharacter} in fields of its own, an {@link Enemy} in a slot of an
+ * {@link EnemyStore}. The shared logic only goes through the getters and setters.
+ * The rolls of a fight, evasion and critical hits, are drawn from {@link #getRandom()},
+ * so a character built from a seeded generator fights the same way every time.
  */
 public abstract class AbstractCharacter implements Combatant, GameEntity {
 
-    private Position position;
-    private int health;
-    private int power;
-    private double evasionChance;
-    private boolean visible;
+    /**
+     * the health a character starts with, and the most it can be healed to
+     */
+    public static final int MAX_HEALTH = 100;
+
+    /**
+     * the chance of every character to evade an attack
+     */
+    public static final double BASE_EVASION = 0.25;
+
+    /**
+     * constructs a new abstract character, the subclass sets up its stats
+     */
+    protected AbstractCharacter() {
+    }
+
+    /**
+     * rolls the power level of a new character from the given random generator, 4–14
+     */
+    protected static int rollPower(SplittableRandom rand) {
+        return rand.nextInt(11) + 4;// 0–10 + 4 → 4–14
+    }
+
+    /**
+     * returns the random generator the rolls of the character in a fight are drawn from
+     */
+    public abstract SplittableRandom getRandom();
 
     /**
-     * constructs a new abstract character with base health and a random power level
+     * rolls the dice of the character, returns true with the given chance
      */
-    public AbstractCharacter() {
-        health = 100;
-        Random rand = new Random();
-        this.power = rand.nextInt(11) + 4;// 0–10 + 4 → 4–14
-        evasionChance = 0.25;
-        visible = false;
+    protected boolean roll(double chance) {
+        return getRandom().nextDouble() < chance;
     }
 
     /**
      * returns the current position of the character
      */
     @Override
-    public Position getPosition() {
-        return position;
+    public abstract Position getPosition();
+
+    /**
+     * characters live on the actor layer
+     */
+    @Override
+    public Layer getLayer() {
+        return Layer.ACTOR;
     }
 
     /**
      * getter for the visible stat
      */
-    public boolean getVisible() {
-        return visible;
-    }
+    public abstract boolean getVisible();
 
     /**
      * returns the health of the abstract character
      */
     @Override
-    public int getHealth() {
-        return health;
-    }
+    public abstract int getHealth();
 
     /**
      * sets the health of the abstract character
      */
     @Override
-    public void setHealth(int health) {
-        this.health=health;
-    }
+    public abstract void setHealth(int health);
 
     /**
-     * sets a new position for the character
+     * sets a new position for the character, positions can't change so no copy is needed
      */
-    public void setPosition(Position p) {
-        if (p != null) {
-            position = new Position(p);
-        }
-    }
+    public abstract void setPosition(Position p);
 
     /**
      * returns the chance of the abstract character to avoid damage
      */
     @Override
     public double getEvasionChance() {
-        return evasionChance;
+        return BASE_EVASION;
     }
 
     /**
@@ -94,8 +116,7 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
      */
     @Override
     public boolean tryEvade() {
-        Random rand = new Random();
-        return rand.nextDouble() < evasionChance;
+        return roll(getEvasionChance());
     }
 
     /**
@@ -103,33 +124,41 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
      */
     @Override
     public void receiveDamage(int amount, Combatant source) {
-        if (!tryEvade()) {
-            health -= amount;
+        boolean evaded = tryEvade();
+        setEvaded(evaded);
+        if (!evaded) {
+            setHealth(getHealth() - amount);
         }
     }
 
+    /**
+     * checks if the character evaded the last attack that reached it, as opposed to taking
+     * the hit, even one that dealt no damage
+     */
+    public abstract boolean hasEvaded();
+
+    /**
+     * records if the character evaded the attack it received last
+     */
+    public abstract void setEvaded(boolean evaded);
+
     /**
      * checks if the character is dead or alive
      */
     @Override
     public boolean isDead() {
-        return health <= 0;
+        return getHealth() <= 0;
     }
 
     /**
      *returns the current Power of the character
      */
-    public int getPower() {
-        return power;
-    }
+    public abstract int getPower();
 
     /**
      * sets the power level of the character
      */
-    public boolean setPower(int p){
-        power=p;
-        return true;
-    }
+    public abstract boolean setPower(int p);
 
     /**
      * heals the character according to the amount given in the parameter
@@ -137,7 +166,7 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
     @Override
     public void heal(int amount){
         if(amount>0){
-            this.health=Math.min(100,this.health+amount);
+            setHealth(Math.min(MAX_HEALTH, getHealth() + amount));
         }
     }
 
@@ -146,7 +175,7 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
      */
     @Override
     public String toString(){
-        return "position: " + position + "power level: " + power + "health: " + health;
+        return "position: " + getPosition() + "power level: " + getPower() + "health: " + getHealth();
     }
 
     /**
@@ -162,7 +191,7 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
         }
 
         AbstractCharacter otherCharacter = (AbstractCharacter) obj;
-        return this.health == otherCharacter.health && this.power == otherCharacter.power && this.position.equals(otherCharacter.position) && this.evasionChance == otherCharacter.evasionChance;
+        return this.getHealth() == otherCharacter.getHealth() && this.getPower() == otherCharacter.getPower() && this.getPosition().equals(otherCharacter.getPosition()) && this.getEvasionChance() == otherCharacter.getEvasionChance();
 
     }
 
@@ -171,16 +200,14 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(position, health, power);
+        return Objects.hash(getPosition(), getHealth(), getPower());
     }
 
     /**
      * sets the abstract character as visible or not
      * @param visible , true to make the entity visible or false for invisible
      */
-    public void setVisible(boolean visible) {
-        this.visible = visible;
-    }
+    public abstract void setVisible(boolean visible);
 
 }
 
@@ -2,7 +2,7 @@ package game.characters;
 import game.combat.*;
 import game.map.Position;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Represents a ranged Archer player character.
@@ -24,8 +24,14 @@ public class Archer extends PlayerCharacter implements PhysicalAttacker, RangedF
      * constructs an archer with a name, and with a random accuracy
      */
     public Archer(String name) {
-        super(name);
-        Random rand = new Random();
+        this(name, new SplittableRandom());
+    }
+
+    /**
+     * constructs an archer whose accuracy and rolls in a fight are drawn from the given random generator
+     */
+    public Archer(String name, SplittableRandom rand) {
+        super(name, rand);
         accuracy = rand.nextDouble() * 0.8;
     }
 
@@ -89,7 +95,7 @@ public class Archer extends PlayerCharacter implements PhysicalAttacker, RangedF
      */
     @Override
     public boolean isCriticalHit() {
-        return new Random().nextDouble() < (accuracy / 2); // scale crit chance by accuracy
+        return roll(accuracy / 2); // scale crit chance by accuracy
     }
 
 
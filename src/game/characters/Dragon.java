@@ -2,7 +2,7 @@ package game.characters;
 import game.combat.*;
 import game.map.Position;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Represents a Dragon enemy in the game.
@@ -31,15 +31,49 @@ import java.util.Random;
  */
 public class Dragon extends Enemy implements MeleeFighter, PhysicalAttacker, RangedFighter, MagicAttacker {
 
-    private MagicElement element;
+    private static final MagicElement[] ELEMENTS = MagicElement.values();
 
     /**
      * constructs a dragon, with a random magic element
      */
     public Dragon() {
-        super();
-        MagicElement[] elements = MagicElement.values();
-        this.element = elements[new java.util.Random().nextInt(elements.length)]; // randomizes the element of the dragon, based on the values in the magic element enum
+        this(new SplittableRandom());
+    }
+
+    /**
+     * constructs a dragon whose stats and element are rolled from the given random generator
+     */
+    public Dragon(SplittableRandom rand) {
+        this(new EnemyStore(1, rand.split()), rand);
+    }
+
+    /**
+     * constructs a dragon in the store whose stats and element are rolled from the given random generator
+     */
+    public Dragon(EnemyStore store, SplittableRandom rand) {
+        super(store, EnemyStore.DRAGON, rand);
+        setExtra(rand.nextInt(ELEMENTS.length)); // randomizes the element of the dragon, based on the values in the magic element enum
+    }
+
+    /**
+     * constructs a dragon with the given stats and element, used when a saved map is loaded
+     */
+    public Dragon(int health, int power, int loot, MagicElement element) {
+        this(new EnemyStore(1), health, power, loot, element);
+    }
+
+    /**
+     * constructs a dragon in the store with the given stats and element, used when a saved map is loaded
+     */
+    public Dragon(EnemyStore store, int health, int power, int loot, MagicElement element) {
+        super(store, EnemyStore.DRAGON, health, power, loot, ordinal(element));
+    }
+
+    private static int ordinal(MagicElement element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Element must not be null");
+        }
+        return element.ordinal();
     }
 
 
@@ -48,7 +82,7 @@ public class Dragon extends Enemy implements MeleeFighter, PhysicalAttacker, Ran
      */
     @Override
     public MagicElement getElement() {
-        return element;
+        return ELEMENTS[(int) getExtra()];
     }
 
     /**
@@ -86,7 +120,7 @@ public class Dragon extends Enemy implements MeleeFighter, PhysicalAttacker, Ran
      */
     @Override
     public boolean isElementStrongerThan(MagicAttacker other) {
-        return this.element.isStrongerThan(other.getElement());
+        return this.getElement().isStrongerThan(other.getElement());
     }
 
     /**
@@ -158,9 +192,6 @@ public class Dragon extends Enemy implements MeleeFighter, PhysicalAttacker, Ran
         else if (isInRange(getPosition(),target.getPosition())) {
             fightRanged(target);
         }
-        else {
-            System.out.println("The dragon is too far away too attack!");
-        }
     }
 
 
@@ -172,8 +203,7 @@ public class Dragon extends Enemy implements MeleeFighter, PhysicalAttacker, Ran
 
     @Override
     public boolean isCriticalHit() {
-        Random rand = new Random();
-        return rand.nextDouble() < 0.1;
+        return roll(0.1);
     }
 
     /**
@@ -216,7 +246,7 @@ public class Dragon extends Enemy implements MeleeFighter, PhysicalAttacker, Ran
      */
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), element);
+        return Objects.hash(super.hashCode(), getElement());
     }
 
     /**
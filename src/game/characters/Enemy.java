@@ -1,7 +1,8 @@
 package game.characters;
 import game.items.Treasure;
+import game.map.Position;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Represents a non-player enemy character in the game.
@@ -11,26 +12,178 @@ import java.util.Random;
  * class for all enemy types (e.g., {@link Goblin}, {@link Orc}, {@link Dragon}).
  * It includes shared properties and behaviors such as loot generation and
  * defeat-handling mechanics.
+ *
+ * <p>
+ * An enemy is a view of one slot of an {@link EnemyStore} and every getter and setter
+ * reads or writes the arrays of the store. Only the position object is kept by the view
+ * as well, so asking for the position never allocates and the map can reuse it. The
+ * constructors without a store give the enemy a small store of its own.
  */
 public abstract class Enemy extends AbstractCharacter {
 
-    private int loot;
+    private final EnemyStore store;
+    private final int slot;
+    private Position position; // the object the map placed the enemy with, the store keeps its row and column
+
+    /**
+     * Constructs a new enemy in the store with 50 health, and power and loot between
+     * 100 and 300 rolled from the given random generator. The stat of the type is set by
+     * the subclass with {@link #setExtra(double)}.
+     */
+    protected Enemy(EnemyStore store, byte kind, SplittableRandom rand) {
+        if (store == null) {
+            throw new IllegalArgumentException("Store must not be null");
+        }
+        int power = rollPower(rand);
+        int loot = rand.nextInt(201) + 100; // 100–300
+        this.store = store;
+        this.slot = store.add(kind, 50, power, loot, BASE_EVASION, 0);
+    }
+
+    /**
+     * Constructs an enemy in the store with the given stats, used when a saved map is loaded.
+     */
+    protected Enemy(EnemyStore store, byte kind, int health, int power, int loot, double extra) {
+        if (store == null) {
+            throw new IllegalArgumentException("Store must not be null");
+        }
+        this.store = store;
+        this.slot = store.add(kind, health, power, loot, BASE_EVASION, extra);
+    }
+
+    /**
+     * getter for the store that holds the enemy
+     */
+    public EnemyStore getStore() {
+        return store;
+    }
+
+    /**
+     * getter for the slot of the enemy in its store
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * returns the random generator of the store, shared by every enemy in it
+     */
+    @Override
+    public SplittableRandom getRandom() {
+        return store.getRandom();
+    }
+
+    /**
+     * returns the stat of the enemy type, see {@link EnemyStore}
+     */
+    protected double getExtra() {
+        return store.getExtra(slot);
+    }
+
+    /**
+     * sets the stat of the enemy type, only used while the enemy is constructed
+     */
+    protected void setExtra(double extra) {
+        store.setExtra(slot, extra);
+    }
+
+    /**
+     * returns the current position of the enemy, the same object until it moves
+     */
+    @Override
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * sets a new position for the enemy and copies it into the store, null is ignored
+     */
+    @Override
+    public void setPosition(Position p) {
+        if (p != null) {
+            position = p;
+            store.setPosition(slot, p.getRow(), p.getCol());
+        }
+    }
+
+    /**
+     * returns the health of the enemy
+     */
+    @Override
+    public int getHealth() {
+        return store.getHealth(slot);
+    }
+
+    /**
+     * sets the health of the enemy
+     */
+    @Override
+    public void setHealth(int health) {
+        store.setHealth(slot, health);
+    }
+
+    /**
+     * returns the current power of the enemy
+     */
+    @Override
+    public int getPower() {
+        return store.getPower(slot);
+    }
+
+    /**
+     * sets the power level of the enemy
+     */
+    @Override
+    public boolean setPower(int p) {
+        store.setPower(slot, p);
+        return true;
+    }
+
+    /**
+     * returns the chance of the enemy to avoid damage
+     */
+    @Override
+    public double getEvasionChance() {
+        return store.getEvasion(slot);
+    }
 
     /**
-     * Constructs a new enemy with 50 health and randomized loot between 100 and 300.
+     * getter for the visible stat
      */
-    public Enemy() {
-        super();
-        setHealth(50);
-        this.loot = new Random().nextInt(201) + 100; // 100–300
+    @Override
+    public boolean getVisible() {
+        return store.isVisible(slot);
     }
 
+    /**
+     * sets the enemy as visible or not
+     */
+    @Override
+    public void setVisible(boolean visible) {
+        store.setVisible(slot, visible);
+    }
+
+    /**
+     * checks if the enemy evaded the last attack that reached it
+     */
+    @Override
+    public boolean hasEvaded() {
+        return store.hasEvaded(slot);
+    }
+
+    /**
+     * records if the enemy evaded the attack it received last
+     */
+    @Override
+    public void setEvaded(boolean evaded) {
+        store.setEvaded(slot, evaded);
+    }
 
     /**
      * Returns the loot value that this enemy carries.
      */
     public int getLoot() {
-        return loot;
+        return store.getLoot(slot);
     }
 
 
@@ -38,7 +191,7 @@ public abstract class Enemy extends AbstractCharacter {
      * Handles logic when the enemy is defeated.
      */
     public Treasure defeat() {
-        return new Treasure(getPosition(),loot);
+        return new Treasure(getPosition(), getLoot());
     }
 
 
@@ -57,7 +210,7 @@ public abstract class Enemy extends AbstractCharacter {
 
         Enemy otherEnemy = (Enemy) obj;
 
-        return (this.loot == otherEnemy.loot);
+        return (this.getLoot() == otherEnemy.getLoot());
     }
 
     /**
@@ -0,0 +1,253 @@
+package game.characters;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Holds the state of many enemies in parallel primitive arrays, one array per stat.
+ *
+ * <p>
+ * An {@link Enemy} is only a view of one slot of a store, it keeps no stats of its own.
+ * Passes over every enemy, like {@link #countAlive()} or {@link #healAll(int)}, run over
+ * the arrays of the store and never touch the enemy objects.
+ *
+ * <p>
+ * The extra column holds the stat of the enemy type: the agility of a goblin, the
+ * resistance of an orc, or the ordinal of the element of a dragon.
+ *
+ * <p>
+ * The enemies of a store draw their rolls in a fight from the random generator of the
+ * store. The generators seed it from the chunk, so the enemies of a seeded map fight
+ * the same way every time.
+ *
+ * <p>
+ * Slots are never freed, a store lives as long as any of its enemies. The generators
+ * give every chunk a store of its own, so a chunk that is dropped takes its store with
+ * it. A store is filled by one thread, it is not safe to add enemies from several
+ * threads at once.
+ */
+public final class EnemyStore {
+
+    /**
+     * the type tag of a goblin
+     */
+    public static final byte GOBLIN = 1;
+
+    /**
+     * the type tag of an orc
+     */
+    public static final byte ORC = 2;
+
+    /**
+     * the type tag of a dragon
+     */
+    public static final byte DRAGON = 3;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int NO_POSITION = Integer.MIN_VALUE;
+    private static final byte VISIBLE = 1;
+    private static final byte EVADED = 2;
+
+    private byte[] kinds;
+    private byte[] flags;
+    private int[] health;
+    private int[] power;
+    private int[] loot;
+    private int[] rows;
+    private int[] cols;
+    private float[] evasion;
+    private double[] extra;
+    private int size;
+    private final SplittableRandom random;
+
+    /**
+     * constructs an empty store
+     */
+    public EnemyStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * constructs an empty store whose enemies draw their rolls from the given random generator
+     */
+    public EnemyStore(SplittableRandom random) {
+        this(DEFAULT_CAPACITY, random);
+    }
+
+    /**
+     * constructs an empty store with room for the given amount of enemies before it grows
+     */
+    public EnemyStore(int capacity) {
+        this(capacity, new SplittableRandom());
+    }
+
+    /**
+     * constructs an empty store with room for the given amount of enemies, whose enemies
+     * draw their rolls from the given random generator
+     */
+    public EnemyStore(int capacity, SplittableRandom random) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        if (random == null) {
+            throw new IllegalArgumentException("Random generator must not be null");
+        }
+        this.random = random;
+        kinds = new byte[capacity];
+        flags = new byte[capacity];
+        health = new int[capacity];
+        power = new int[capacity];
+        loot = new int[capacity];
+        rows = new int[capacity];
+        cols = new int[capacity];
+        evasion = new float[capacity];
+        extra = new double[capacity];
+    }
+
+    /**
+     * adds an enemy without a position and returns its slot
+     */
+    int add(byte kind, int health, int power, int loot, double evasion, double extra) {
+        if (size == kinds.length) {
+            grow();
+        }
+        int slot = size++;
+        this.kinds[slot] = kind;
+        this.health[slot] = health;
+        this.power[slot] = power;
+        this.loot[slot] = loot;
+        this.rows[slot] = NO_POSITION;
+        this.evasion[slot] = (float) evasion;
+        this.extra[slot] = extra;
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        health = Arrays.copyOf(health, capacity);
+        power = Arrays.copyOf(power, capacity);
+        loot = Arrays.copyOf(loot, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+        cols = Arrays.copyOf(cols, capacity);
+        evasion = Arrays.copyOf(evasion, capacity);
+        extra = Arrays.copyOf(extra, capacity);
+    }
+
+    /**
+     * returns the amount of enemies in the store, dead ones included
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * getter for the random generator the enemies of the store draw their rolls from
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * returns the type tag of the enemy in the slot
+     */
+    public byte getKind(int slot) {
+        return kinds[slot];
+    }
+
+    int getHealth(int slot) {
+        return health[slot];
+    }
+
+    void setHealth(int slot, int value) {
+        health[slot] = value;
+    }
+
+    int getPower(int slot) {
+        return power[slot];
+    }
+
+    void setPower(int slot, int value) {
+        power[slot] = value;
+    }
+
+    int getLoot(int slot) {
+        return loot[slot];
+    }
+
+    double getEvasion(int slot) {
+        return evasion[slot];
+    }
+
+    double getExtra(int slot) {
+        return extra[slot];
+    }
+
+    void setExtra(int slot, double value) {
+        extra[slot] = value;
+    }
+
+    boolean isVisible(int slot) {
+        return (flags[slot] & VISIBLE) != 0;
+    }
+
+    void setVisible(int slot, boolean visible) {
+        flags[slot] = (byte) (visible ? flags[slot] | VISIBLE : flags[slot] & ~VISIBLE);
+    }
+
+    boolean hasEvaded(int slot) {
+        return (flags[slot] & EVADED) != 0;
+    }
+
+    void setEvaded(int slot, boolean evaded) {
+        flags[slot] = (byte) (evaded ? flags[slot] | EVADED : flags[slot] & ~EVADED);
+    }
+
+    void setPosition(int slot, int row, int col) {
+        rows[slot] = row;
+        cols[slot] = col;
+    }
+
+    /**
+     * returns the amount of enemies that are still alive
+     */
+    public int countAlive() {
+        int alive = 0;
+        for (int i = 0; i < size; i++) {
+            if (health[i] > 0) alive++;
+        }
+        return alive;
+    }
+
+    /**
+     * Heals every enemy that is still alive by the amount, up to the same limit of 100
+     * as {@link AbstractCharacter#heal(int)}.
+     * @return the amount of enemies healed
+     */
+    public int healAll(int amount) {
+        if (amount <= 0) return 0;
+        int healed = 0;
+        for (int i = 0; i < size; i++) {
+            int h = health[i];
+            if (h > 0) {
+                health[i] = Math.min(AbstractCharacter.MAX_HEALTH, h + amount);
+                healed++;
+            }
+        }
+        return healed;
+    }
+
+    /**
+     * returns the amount of living enemies whose Manhattan distance to the cell is at most the given distance
+     */
+    public int countNear(int row, int col, int distance) {
+        int near = 0;
+        for (int i = 0; i < size; i++) {
+            if (health[i] > 0 && rows[i] != NO_POSITION
+                    && Math.abs(rows[i] - row) + Math.abs(cols[i] - col) <= distance) {
+                near++;
+            }
+        }
+        return near;
+    }
+}
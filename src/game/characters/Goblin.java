@@ -5,7 +5,7 @@ import game.combat.MeleeFighter;
 import game.combat.PhysicalAttacker;
 import game.map.Position;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 
 /**
@@ -19,14 +19,40 @@ import java.util.Random;
  */
 public class Goblin extends Enemy implements MeleeFighter, PhysicalAttacker {
 
-    private int agility;
-
     /**
      * constructs a goblin based on the Enemy default constructor with a random agility between 0-80
      */
     public Goblin() {
-        super();
-        this.agility = new Random().nextInt(81); // 0-80
+        this(new SplittableRandom());
+    }
+
+    /**
+     * constructs a goblin whose stats are rolled from the given random generator
+     */
+    public Goblin(SplittableRandom rand) {
+        this(new EnemyStore(1, rand.split()), rand);
+    }
+
+    /**
+     * constructs a goblin in the store whose stats are rolled from the given random generator
+     */
+    public Goblin(EnemyStore store, SplittableRandom rand) {
+        super(store, EnemyStore.GOBLIN, rand);
+        setExtra(rand.nextInt(81)); // 0-80
+    }
+
+    /**
+     * constructs a goblin with the given stats, used when a saved map is loaded
+     */
+    public Goblin(int health, int power, int loot, int agility) {
+        this(new EnemyStore(1), health, power, loot, agility);
+    }
+
+    /**
+     * constructs a goblin in the store with the given stats, used when a saved map is loaded
+     */
+    public Goblin(EnemyStore store, int health, int power, int loot, int agility) {
+        super(store, EnemyStore.GOBLIN, health, power, loot, agility);
     }
 
 
@@ -34,7 +60,7 @@ public class Goblin extends Enemy implements MeleeFighter, PhysicalAttacker {
      * getter for the agility field of the goblin
      */
     public int getAgility() {
-        return agility;
+        return (int) getExtra();
     }
 
     /**
@@ -42,9 +68,8 @@ public class Goblin extends Enemy implements MeleeFighter, PhysicalAttacker {
      */
     @Override
     public boolean tryEvade() {
-        double goblinEvasion = Math.min(0.8, agility / 100.0);
-        return new Random().nextDouble() < goblinEvasion;
-
+        double goblinEvasion = Math.min(0.8, getAgility() / 100.0);
+        return roll(goblinEvasion);
     }
 
     /**
@@ -62,8 +87,7 @@ public class Goblin extends Enemy implements MeleeFighter, PhysicalAttacker {
      */
     @Override
     public boolean isCriticalHit() {
-        Random rand = new Random();
-        return rand.nextDouble() < 0.1;
+        return roll(0.1);
     }
 
     /**
@@ -123,7 +147,7 @@ public class Goblin extends Enemy implements MeleeFighter, PhysicalAttacker {
 
         Goblin otherGoblin = (Goblin)obj;
 
-        return (this.agility == otherGoblin.agility);
+        return (this.getAgility() == otherGoblin.getAgility());
     }
 
     /**
@@ -131,7 +155,7 @@ public class Goblin extends Enemy implements MeleeFighter, PhysicalAttacker {
      */
     @Override
     public String toString(){
-        return super.toString() + "agility: " + agility;
+        return super.toString() + "agility: " + getAgility();
     }
 
     /**
@@ -139,7 +163,7 @@ public class Goblin extends Enemy implements MeleeFighter, PhysicalAttacker {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), agility);
+        return Objects.hash(super.hashCode(), getAgility());
     }
 
     /**
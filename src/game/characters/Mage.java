@@ -6,6 +6,7 @@ import game.combat.RangedFighter;
 import game.map.Position;
 
 import java.util.Objects;
+import java.util.SplittableRandom;
 
 
 /**
@@ -38,10 +39,16 @@ public class Mage extends PlayerCharacter implements MagicAttacker, RangedFighte
      * constructs a mage to the game, with a random element from the known values
      */
     public Mage(String name) {
-        super(name);
-        MagicElement[] elements = MagicElement.values();
-        this.element = elements[new java.util.Random().nextInt(elements.length)]; // randomizes the element of the mage, based on the values in the magic element enum
+        this(name, new SplittableRandom());
+    }
 
+    /**
+     * constructs a mage whose element and rolls in a fight are drawn from the given random generator
+     */
+    public Mage(String name, SplittableRandom rand) {
+        super(name, rand);
+        MagicElement[] elements = MagicElement.values();
+        this.element = elements[rand.nextInt(elements.length)]; // randomizes the element of the mage, based on the values in the magic element enum
     }
 
     /**
@@ -2,7 +2,7 @@ package game.characters;
 import game.combat.*;
 import game.map.Position;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
 /**
  * Represents an orc - enemy character in the game.
  *
@@ -12,14 +12,40 @@ import java.util.Random;
  */
 public class Orc extends Enemy implements PhysicalAttacker , MeleeFighter {
 
-    private  double resistance;
-
     /**
      * constructs an orc with a resistance ability between 0-0.5
      */
     public Orc(){
-        super();
-        this.resistance=new Random().nextDouble() * 0.5;//0-0.5
+        this(new SplittableRandom());
+    }
+
+    /**
+     * constructs an orc whose stats are rolled from the given random generator
+     */
+    public Orc(SplittableRandom rand){
+        this(new EnemyStore(1, rand.split()), rand);
+    }
+
+    /**
+     * constructs an orc in the store whose stats are rolled from the given random generator
+     */
+    public Orc(EnemyStore store, SplittableRandom rand){
+        super(store, EnemyStore.ORC, rand);
+        setExtra(rand.nextDouble() * 0.5);//0-0.5
+    }
+
+    /**
+     * constructs an orc with the given stats, used when a saved map is loaded
+     */
+    public Orc(int health, int power, int loot, double resistance){
+        this(new EnemyStore(1), health, power, loot, resistance);
+    }
+
+    /**
+     * constructs an orc in the store with the given stats, used when a saved map is loaded
+     */
+    public Orc(EnemyStore store, int health, int power, int loot, double resistance){
+        super(store, EnemyStore.ORC, health, power, loot, resistance);
     }
 
 
@@ -35,12 +61,11 @@ public class Orc extends Enemy implements PhysicalAttacker , MeleeFighter {
     public void receiveDamage(int amount, Combatant source) {
         if (!tryEvade()){
             if(source instanceof MagicAttacker){
-                amount *= (1-resistance);
+                amount *= (1-getResistance());
             }
             super.receiveDamage(amount, source);
-        }
-        else {
-            System.out.println("The orc evaded the attack!");
+        } else {
+            setEvaded(true);
         }
     }
 
@@ -77,8 +102,7 @@ public class Orc extends Enemy implements PhysicalAttacker , MeleeFighter {
      */
     @Override
     public boolean isCriticalHit() {
-        Random rand = new Random();
-        return rand.nextDouble() < 0.1;
+        return roll(0.1);
     }
 
 
@@ -126,7 +150,7 @@ public class Orc extends Enemy implements PhysicalAttacker , MeleeFighter {
 
         Orc otherOrc = (Orc) obj;
 
-        return (this.resistance == otherOrc.resistance);
+        return (this.getResistance() == otherOrc.getResistance());
     }
 
 
@@ -134,7 +158,7 @@ public class Orc extends Enemy implements PhysicalAttacker , MeleeFighter {
      * getter for the resistance field for the orc
      */
     public double getResistance(){
-        return resistance;
+        return getExtra();
     }
 
 
@@ -3,8 +3,10 @@ import game.core.Inventory;
 import game.items.GameItem;
 import game.items.Interactable;
 import game.items.Potion;
+import game.map.Position;
 
 import java.util.Objects;
+import java.util.SplittableRandom;
 
 /**
  * Represents a playable character controlled by the user.
@@ -27,12 +29,31 @@ public abstract class PlayerCharacter extends AbstractCharacter {
     private String name;
     private Inventory inventory;
     private int treasurePoints;
+    private Position position;
+    private int health;
+    private int power;
+    private boolean visible;
+    private boolean evaded;
+    private final SplittableRandom random;
 
     /**
      * constructs a player character with a name and an empty inventory with default stats
      */
     public PlayerCharacter(String name) {
+        this(name, new SplittableRandom());
+    }
+
+    /**
+     * constructs a player character whose stats and rolls in a fight are drawn from the given random generator
+     */
+    public PlayerCharacter(String name, SplittableRandom rand) {
         super();
+        if (rand == null) {
+            throw new IllegalArgumentException("Random generator must not be null");
+        }
+        this.random = rand;
+        this.health = MAX_HEALTH;
+        this.power = rollPower(rand);
         this.name = name;
         this.inventory = new Inventory();
         treasurePoints = 0;
@@ -47,6 +68,97 @@ public abstract class PlayerCharacter extends AbstractCharacter {
     }
 
 
+    /**
+     * getter for the random generator the rolls of the player are drawn from
+     */
+    @Override
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * returns the current position of the player
+     */
+    @Override
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * sets a new position for the player, positions can't change so no copy is needed
+     */
+    @Override
+    public void setPosition(Position p) {
+        if (p != null) {
+            position = p;
+        }
+    }
+
+    /**
+     * returns the health of the player
+     */
+    @Override
+    public int getHealth() {
+        return health;
+    }
+
+    /**
+     * sets the health of the player
+     */
+    @Override
+    public void setHealth(int health) {
+        this.health = health;
+    }
+
+    /**
+     * returns the current power of the player
+     */
+    @Override
+    public int getPower() {
+        return power;
+    }
+
+    /**
+     * sets the power level of the player
+     */
+    @Override
+    public boolean setPower(int p) {
+        power = p;
+        return true;
+    }
+
+    /**
+     * getter for the visible stat
+     */
+    @Override
+    public boolean getVisible() {
+        return visible;
+    }
+
+    /**
+     * sets the player as visible or not
+     */
+    @Override
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+
+    /**
+     * checks if the player evaded the last attack that reached them
+     */
+    @Override
+    public boolean hasEvaded() {
+        return evaded;
+    }
+
+    /**
+     * records if the player evaded the attack they received last
+     */
+    @Override
+    public void setEvaded(boolean evaded) {
+        this.evaded = evaded;
+    }
+
     /**
      * adds an item to the player's inventory
      */
@@ -5,7 +5,7 @@ import game.combat.MeleeFighter;
 import game.combat.PhysicalAttacker;
 import game.map.Position;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 
 /**
@@ -36,8 +36,15 @@ public class Warrior extends PlayerCharacter implements MeleeFighter, PhysicalAt
      * constructs a warrior with the name given in the parameter and a random defence between 0-120
      */
     public Warrior(String name) {
-        super(name);
-        this.defence = new Random().nextInt(121); // 0-120
+        this(name, new SplittableRandom());
+    }
+
+    /**
+     * constructs a warrior whose stats and rolls in a fight are drawn from the given random generator
+     */
+    public Warrior(String name, SplittableRandom rand) {
+        super(name, rand);
+        this.defence = rand.nextInt(121); // 0-120
     }
 
 
@@ -65,6 +72,8 @@ public class Warrior extends PlayerCharacter implements MeleeFighter, PhysicalAt
             double reduction = Math.min(0.6, defence / 200.0);
             int reducedDamage = (int) Math.round(amount * (1 - reduction));
             super.receiveDamage(reducedDamage, source);
+        } else {
+            setEvaded(true);
         }
     }
 
@@ -111,8 +120,7 @@ public class Warrior extends PlayerCharacter implements MeleeFighter, PhysicalAt
      */
     @Override
     public boolean isCriticalHit() {
-        Random rand = new Random();
-        return rand.nextDouble() < 0.1;
+        return roll(0.1);
     }
 
     /**
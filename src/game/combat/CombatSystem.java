@@ -1,6 +1,4 @@
 package game.combat;
-import game.characters.Enemy;
-import game.characters.PlayerCharacter;
 
 
 /**
@@ -10,57 +8,33 @@ public class CombatSystem {
 
 
     /**
-     * Resolves combat between an attacker and defender, handling range, evasion, damage, and defeat.
+     * Resolves combat between an attacker and defender, handling range, evasion and damage.
+     * Reporting a defeat is left to the caller, which can check {@link Combatant#isDead()}.
+     *
+     * @return true if the attacker was in range and attacked, false if it could not reach the defender
      */
-    public static void resolveCombat(Combatant attacker, Combatant defender) {
-        if (attacker == null || defender == null) return;
+    public static boolean resolveCombat(Combatant attacker, Combatant defender) {
+        if (attacker == null || defender == null) return false;
 
 
         // condition whether the attacker is a melee fighter
         if (attacker instanceof MeleeFighter melee && melee.isInMeleeRange(attacker.getPosition(), defender.getPosition())) {
 
             melee.fightClose(defender);
-
-            // Check defeat
-            if (!defender.isDead()) return;
-
-            if (defender instanceof Enemy enemy) {
-                System.out.println(enemy.enemyDiscription() + " has been defeated!");
-                enemy.defeat();
-
-            } else if (defender instanceof PlayerCharacter player) {
-                System.out.println("Game Over! " + player.getName() + " has been defeated.");
-                System.out.println("Total treasure: " + player.getTreasurePoints());
-            }
-
-            return; // don't allow a second attack
+            return true; // don't allow a second attack
         }
 
 
         // condition whether the attacker is a ranged fighter
         if (attacker instanceof RangedFighter ranged && ranged.isInRange(attacker.getPosition(), defender.getPosition())) {
 
-
             ranged.fightRanged(defender);
-
-            // Check defeat
-            if (!defender.isDead()) return;
-
-            if (defender instanceof Enemy enemy) {
-                System.out.println(enemy.enemyDiscription() + " has been defeated!");
-                enemy.defeat();
-
-            } else if (defender instanceof PlayerCharacter player) {
-                System.out.println("Game Over! " + player.getName() + " has been defeated.");
-                System.out.println("Total treasure: " + player.getTreasurePoints());
-            }
-
-            return;
-
+            return true;
         }
+
+        return false;
     }
 
 
 
 }
-
@@ -27,6 +27,11 @@ public interface GameEntity {
      */
     String getDisplaySymbol();
 
+    /**
+     * returns the layer of the map the entity lives on, it must never change while the entity is on the map
+     */
+    Layer getLayer();
+
     /**
      * sets the visibility status of the entity
      * @param visible , true to make the entity visible or false for invisible
@@ -0,0 +1,36 @@
+package game.core;
+
+/**
+ * The layers a cell of the map is made of, from the bottom up.
+ *
+ * <p>
+ * Every entity lives on exactly one layer, and the map keeps each layer apart, so asking
+ * for the items or the actors of a cell needs no type checks. When a cell is drawn the
+ * entity on the highest layer is the one that shows.
+ */
+public enum Layer {
+
+    /**
+     * the fixed shape of the dungeon, walls
+     */
+    TERRAIN,
+
+    /**
+     * things lying on the ground, potions and treasure
+     */
+    ITEM,
+
+    /**
+     * everything that acts, the players and the enemies
+     */
+    ACTOR;
+
+    private static final Layer[] TOP_DOWN = {ACTOR, ITEM, TERRAIN};
+
+    /**
+     * returns the layers from the one drawn on top to the one at the bottom, the array is shared
+     */
+    public static Layer[] topDown() {
+        return TOP_DOWN;
+    }
+}
@@ -0,0 +1,97 @@
+package game.engine;
+import game.map.Direction;
+
+/**
+ * An action the player takes on their turn, applied with {@link GameWorld#apply(Command)}.
+ *
+ * <p>
+ * Commands hold no state besides their type and direction, so every command is a shared
+ * constant and driving the game from code never allocates one.
+ */
+public class Command {
+
+    /**
+     * the kinds of actions a player can take
+     */
+    public enum Type {
+        MOVE,
+        USE_POTION,
+        USE_POWER_POTION,
+        LOOT,
+        STATS,
+        EXIT
+    }
+
+    /**
+     * drinks the first health potion of the inventory
+     */
+    public static final Command USE_POTION = new Command(Type.USE_POTION, null);
+
+    /**
+     * drinks the first power potion of the inventory
+     */
+    public static final Command USE_POWER_POTION = new Command(Type.USE_POWER_POTION, null);
+
+    /**
+     * picks up the items in the cells next to the player
+     */
+    public static final Command LOOT = new Command(Type.LOOT, null);
+
+    /**
+     * reports the stats of the player
+     */
+    public static final Command STATS = new Command(Type.STATS, null);
+
+    /**
+     * ends the game
+     */
+    public static final Command EXIT = new Command(Type.EXIT, null);
+
+    private static final Command[] MOVES = new Command[Direction.values().length];
+
+    static {
+        for (Direction direction : Direction.values()) {
+            MOVES[direction.ordinal()] = new Command(Type.MOVE, direction);
+        }
+    }
+
+    private final Type type;
+    private final Direction direction;
+
+    private Command(Type type, Direction direction) {
+        this.type = type;
+        this.direction = direction;
+    }
+
+    /**
+     * returns the command that moves the player one step in the direction
+     */
+    public static Command move(Direction direction) {
+        if (direction == null) {
+            throw new IllegalArgumentException("Direction must not be null");
+        }
+        return MOVES[direction.ordinal()];
+    }
+
+    /**
+     * getter for the type field
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * getter for the direction field, null unless this is a move
+     */
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * represents the command as a string
+     */
+    @Override
+    public String toString() {
+        return direction == null ? type.toString() : type + " " + direction;
+    }
+}
@@ -0,0 +1,205 @@
+package game.engine;
+import game.core.GameEntity;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Carries the {@link GameEvent}s of one world from the thread that plays it to any amount
+ * of readers, without locks.
+ *
+ * <p>
+ * The events are kept in a ring buffer of parallel arrays that is allocated once, when
+ * the first reader subscribes, so publishing never allocates. Only one thread may publish,
+ * the one driving the world. Every {@link Subscription} reads at its own pace from any
+ * thread. The writer never waits for a reader: a reader that falls more than the capacity
+ * of the ring behind loses the oldest events, and {@link Subscription#getLost()} tells how
+ * many. While nobody subscribed, {@link #publish} returns right away, so a world without
+ * readers pays a single volatile read per event.
+ *
+ * <p>
+ * A slot is written in sequence-lock fashion: the writer first claims the sequence of the
+ * slot, then fills it, then publishes it. A reader copies the slot and afterwards checks
+ * that the writer did not claim the slot again in the meantime, otherwise the copy may be
+ * torn and is dropped as lost.
+ */
+public class EventBus {
+
+    /**
+     * the default amount of events a reader can fall behind before it loses events
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final VarHandle CLAIMED;
+    private static final VarHandle PUBLISHED;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CLAIMED = lookup.findVarHandle(EventBus.class, "claimed", long.class);
+            PUBLISHED = lookup.findVarHandle(EventBus.class, "published", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * receives the events of a subscription, the entities are the ones of {@link GameEvent}
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void onEvent(GameEvent.Type type, GameEntity subject, GameEntity other, int value);
+    }
+
+    private final int capacity;
+    private int subscribers;
+    private volatile boolean active;
+    private volatile long claimed; // the sequence after the last slot the writer started to fill
+    private volatile long published; // the sequence after the last slot that is complete
+    private volatile Ring ring;
+
+    /**
+     * constructs a bus with the default capacity
+     */
+    public EventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * constructs a bus whose readers can fall the given amount of events behind, a power of two
+     */
+    public EventBus(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least 2");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * checks if anyone is subscribed, callers can skip building an event when nobody is
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * getter for the capacity field
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Publishes an event to every subscription. Must only be called by the one thread that
+     * plays the world.
+     */
+    public void publish(GameEvent.Type type, GameEntity subject, GameEntity other, int value) {
+        if (!active) return;
+        Ring r = ring;
+        long seq = (long) PUBLISHED.getOpaque(this); // only this thread writes it
+        int i = (int) seq & (capacity - 1);
+        CLAIMED.setOpaque(this, seq + 1);
+        VarHandle.storeStoreFence(); // readers must see the claim before any write to the slot
+        r.types[i] = type;
+        r.subjects[i] = subject;
+        r.others[i] = other;
+        r.values[i] = value;
+        PUBLISHED.setRelease(this, seq + 1);
+    }
+
+    /**
+     * starts reading the events published from now on
+     */
+    public synchronized Subscription subscribe() {
+        if (ring == null) {
+            ring = new Ring(capacity);
+        }
+        subscribers++;
+        active = true;
+        return new Subscription(published);
+    }
+
+    private synchronized void unsubscribe() {
+        if (--subscribers == 0) {
+            active = false;
+        }
+    }
+
+    /**
+     * the slots of the ring, one array per field of an event
+     */
+    private static class Ring {
+        private final GameEvent.Type[] types;
+        private final GameEntity[] subjects;
+        private final GameEntity[] others;
+        private final int[] values;
+
+        private Ring(int capacity) {
+            types = new GameEvent.Type[capacity];
+            subjects = new GameEntity[capacity];
+            others = new GameEntity[capacity];
+            values = new int[capacity];
+        }
+    }
+
+    /**
+     * One reader of the bus. A subscription is meant to be polled by one thread at a time.
+     */
+    public class Subscription implements AutoCloseable {
+
+        private long next;
+        private long lost;
+        private boolean closed;
+
+        private Subscription(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Hands every event published since the last poll to the handler, oldest first.
+         * @return the amount of events handled
+         */
+        public int poll(Handler handler) {
+            if (closed) return 0;
+            Ring r = ring;
+            long end = (long) PUBLISHED.getAcquire(EventBus.this);
+            int handled = 0;
+            while (next < end) {
+                if (end - next > capacity) { // the writer already went round the ring
+                    lost += end - capacity - next;
+                    next = end - capacity;
+                }
+                int i = (int) next & (capacity - 1);
+                GameEvent.Type type = r.types[i];
+                GameEntity subject = r.subjects[i];
+                GameEntity other = r.others[i];
+                int value = r.values[i];
+                VarHandle.loadLoadFence(); // the copy is read before the claim is checked
+                if ((long) CLAIMED.getOpaque(EventBus.this) - next > capacity) {
+                    lost++; // the slot was claimed again while it was copied
+                } else {
+                    handler.onEvent(type, subject, other, value);
+                    handled++;
+                }
+                next++;
+            }
+            return handled;
+        }
+
+        /**
+         * returns the amount of events this reader missed because it fell too far behind
+         */
+        public long getLost() {
+            return lost;
+        }
+
+        /**
+         * stops reading, once every subscription is closed publishing costs nothing again
+         */
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            unsubscribe();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package game.engine;
+import game.characters.Enemy;
+import game.characters.PlayerCharacter;
+import game.core.GameEntity;
+import game.items.GameItem;
+
+/**
+ * Something that happened while the game world was advanced by {@link GameWorld#engage()}
+ * or {@link GameWorld#apply(Command)}, published on the {@link EventBus} of the world
+ * instead of being printed.
+ *
+ * <p>
+ * An event only holds its type, the entity it is about, the other entity taking part and
+ * one number. The bus does not even keep event objects, a reader that wants one builds it
+ * from the fields it receives. The text a console shows is only built when
+ * {@link #getMessage()} is called, so code that drives the game without a console never
+ * pays for it.
+ */
+public class GameEvent {
+
+    /**
+     * the kinds of things that can happen during a turn
+     */
+    public enum Type {
+        COMBAT_STARTED,
+        DAMAGE_DEALT,
+        EVADED,
+        OUT_OF_REACH,
+        STALEMATE,
+        ENEMY_DEFEATED,
+        PLAYER_DIED,
+        MOVED,
+        MOVE_BLOCKED,
+        NO_POTIONS,
+        NO_SUCH_POTION,
+        POTION_USED,
+        POWER_POTION_USED,
+        ITEM_LOOTED,
+        STATS,
+        GAME_EXITED
+    }
+
+    private final Type type;
+    private final GameEntity subject;
+    private final GameEntity other;
+    private final int value;
+
+    /**
+     * constructs an event about the given entity, with a number whose meaning depends on the type
+     */
+    public GameEvent(Type type, GameEntity subject, int value) {
+        this(type, subject, null, value);
+    }
+
+    /**
+     * constructs an event about the given entity and the other one taking part, like the
+     * attacker of a {@link Type#DAMAGE_DEALT}
+     */
+    public GameEvent(Type type, GameEntity subject, GameEntity other, int value) {
+        if (type == null) {
+            throw new IllegalArgumentException("Event type must not be null");
+        }
+        this.type = type;
+        this.subject = subject;
+        this.other = other;
+        this.value = value;
+    }
+
+    /**
+     * getter for the type field
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * getter for the entity the event is about, the player, an enemy or an item
+     */
+    public GameEntity getSubject() {
+        return subject;
+    }
+
+    /**
+     * getter for the other entity taking part: the attacker of damage or of an evaded
+     * attack, the player in a fight or when looting, null when there is none
+     */
+    public GameEntity getOther() {
+        return other;
+    }
+
+    /**
+     * getter for the number of the event: the damage dealt, the loot of a defeated enemy,
+     * the new health or power after a potion, or the treasure points of a player that died
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Builds the text the console shows for the event, an empty string for events it does
+     * not report. The stats of the player are read when this is called.
+     */
+    public String getMessage() {
+        return switch (type) {
+            case COMBAT_STARTED -> ((Enemy) subject).enemyDiscription() + " in range, commencing combat!";
+            case DAMAGE_DEALT -> "";
+            case EVADED -> subject instanceof Enemy enemy
+                    ? "The " + enemy.enemyDiscription().toLowerCase() + " evaded the attack!"
+                    : "";
+            case OUT_OF_REACH -> ((Enemy) subject).enemyDiscription() + " is out of reach, move closer to fight it.";
+            case STALEMATE -> ((Enemy) subject).enemyDiscription() + " and you can't hurt each other, the fight is broken off.";
+            case ENEMY_DEFEATED -> ((Enemy) subject).enemyDiscription() + " has been defeated!";
+            case PLAYER_DIED -> "Game Over! " + ((PlayerCharacter) subject).getName() + " has been defeated.\n"
+                    + "Total treasure: " + value + "\n"
+                    + "You have died. Game Over.";
+            case MOVED -> "";
+            case MOVE_BLOCKED -> "You can't move there.";
+            case NO_POTIONS -> "You don't have any potions in your inventory!";
+            case NO_SUCH_POTION -> "You don't have a potion of that kind!";
+            case POTION_USED -> "Used health Potion!\nYour new health is: " + value;
+            case POWER_POTION_USED -> "Used power potion!\nYour new power is: " + value;
+            case ITEM_LOOTED -> "Looted " + ((GameItem) subject).getDescription() + ".";
+            case STATS -> {
+                PlayerCharacter player = (PlayerCharacter) subject;
+                yield "Player: " + player.getName() + "\n"
+                        + "Health: " + player.getHealth() + "\n"
+                        + "Power: " + player.getPower() + "\n"
+                        + "Treasure Points: " + player.getTreasurePoints() + "\n"
+                        + "Inventory: " + player.getInventory().getItems().size() + " item(s)";
+            }
+            case GAME_EXITED -> {
+                PlayerCharacter player = (PlayerCharacter) subject;
+                yield "Exiting game........\n"
+                        + "final stats: \n"
+                        + "Health: " + player.getHealth() + "\n"
+                        + "Power: " + player.getPower() + "\n"
+                        + "Treasure Points: " + player.getTreasurePoints();
+            }
+        };
+    }
+
+    /**
+     * represents the event as a string
+     */
+    @Override
+    public String toString() {
+        return type + " " + subject + " " + other + " " + value;
+    }
+}
@@ -2,10 +2,16 @@ package game.engine;
 import game.characters.*;
 import game.combat.CombatSystem;
 import game.core.GameEntity;
+import game.core.Layer;
 import game.items.GameItem;
-import game.items.Potion;
 import game.items.Treasure;
+import game.map.Direction;
 import game.map.GameMap;
+import game.map.Position;
+import game.map.RegionLabels;
+import game.render.FrameRenderer;
+import java.io.InputStream;
+import java.io.PrintStream;
 import java.util.*;
 
 
@@ -19,32 +25,40 @@ import java.util.*;
  */
 public class GameWorld {
 
-    private static GameWorld instance;
+    /**
+     * the most rounds a single fight lasts, some fighters can never hurt each other
+     */
+    public static final int MAX_ROUNDS = 1000;
+
     private List<PlayerCharacter> players;
     private List<Enemy> enemies;
     private List<GameItem> items;
     private GameMap map;
+    private SplittableRandom rand;
+    private boolean over;
+    private final EventBus eventBus = new EventBus();
+    private EventBus.Subscription console;
+    private boolean combatShown;
 
     /**
      * constructs the game world, according to the parameters of players, enemies, items, and the map
      */
-    private GameWorld(List<PlayerCharacter> players, List<Enemy> enemies, List<GameItem> items, GameMap map) {
+    public GameWorld(List<PlayerCharacter> players, List<Enemy> enemies, List<GameItem> items, GameMap map) {
         this.players = players;
         this.enemies = enemies;
         this.items = items;
         this.map = map;
+        this.rand = new SplittableRandom();
     }
 
-
     /**
-     * Initializes the GameWorld with given parameters (only once).
+     * Constructs a game world of its own around a map that already holds the player, with
+     * the enemies and items taken from the map. Worlds built this way share nothing, so
+     * many games can run side by side, and the same seed always drops loot the same way.
      */
-    public static GameWorld getInstance(List<PlayerCharacter> players, List<Enemy> enemies, List<GameItem> items, GameMap map) {
-        if (instance == null) {
-            instance = new GameWorld(players, enemies, items, map);
-        }
-        return instance;
-
+    public GameWorld(GameMap map, PlayerCharacter player, long seed) {
+        this(new ArrayList<>(List.of(player)), enemiesOn(map), itemsOn(map), map);
+        this.rand = new SplittableRandom(seed);
     }
 
 
@@ -139,144 +153,285 @@ public class GameWorld {
     }
 
     /**
-     * the players turn during a game
+     * checks if the game has ended, because the player died or left
      */
-    public boolean turn(Scanner scanner) {
+    public boolean isOver() {
+        return over;
+    }
 
-        PlayerCharacter player = players.get(0);
-        map.revealNearby(player.getPosition());
-        map.displayMap();
-        boolean combatOccurred = false;
+    /**
+     * getter for the bus the world publishes everything that happens on
+     */
+    public EventBus getEventBus() {
+        return eventBus;
+    }
 
+    /**
+     * Fights every enemy the player can see, one after the other, until one side dies,
+     * neither can reach the other, or {@link #MAX_ROUNDS} rounds passed. Does no input or
+     * output, what happened is published on the {@link #getEventBus() event bus}.
+     */
+    public void engage() {
+        if (over) return;
+        PlayerCharacter player = players.get(0);
         List<Enemy> enemiesToRemove = new ArrayList<>();
-        List <GameItem> itemsToRemove = new ArrayList<>();
-
 
-        for (Enemy enemy : enemies) {
-            if (!enemy.getVisible()) continue;
-            combatOccurred = true;
-            System.out.println( enemy.enemyDiscription() + " in range, commencing combat!");
+        for (GameEntity entity : map.getVisibleEntities(player, Layer.ACTOR)) { // reads the player's fog of war, not the enemies
+            if (!(entity instanceof Enemy enemy)) continue; // the player, or another player on the map
+            eventBus.publish(GameEvent.Type.COMBAT_STARTED, enemy, player, 0);
+            int rounds = 0;
             while (!player.isDead() && !enemy.isDead()) {
-                CombatSystem.resolveCombat(player, enemy);
-                CombatSystem.resolveCombat(enemy, player);
+                if (++rounds > MAX_ROUNDS) { // e.g. an archer that can never hit, against an enemy that can't reach the archer
+                    eventBus.publish(GameEvent.Type.STALEMATE, enemy, player, 0);
+                    break;
+                }
+                boolean attacked = attack(player, enemy);
+                if (!enemy.isDead()) {
+                    attacked |= attack(enemy, player);
+                }
+                if (!attacked) { // neither can reach the other, the fight would never end
+                    eventBus.publish(GameEvent.Type.OUT_OF_REACH, enemy, player, 0);
+                    break;
+                }
             }
 
-
             if (player.isDead()) {
-                System.out.println("You have died. Game Over.");
-                return false;
+                eventBus.publish(GameEvent.Type.PLAYER_DIED, player, enemy, player.getTreasurePoints());
+                over = true;
+                break;
             }
 
             if (enemy.isDead()) {
+                eventBus.publish(GameEvent.Type.ENEMY_DEFEATED, enemy, player, enemy.getLoot());
                 Treasure loot = enemy.defeat();
-                loot.setVisible(true);
                 map.removeEntity(enemy);
-                map.addEntity(enemy.getPosition(), loot);
+                Position drop = enemy.getPosition();
+                if (!map.isPositionFree(drop)) {
+                    // something else still blocks the cell, drop it somewhere the player can walk to
+                    RegionLabels regions = map.getRegions();
+                    Position at = player.getPosition();
+                    drop = map.randomFreePosition(rand, regions == null ? -1 : regions.regionOf(at.getRow(), at.getCol()));
+                }
+                map.addEntity(drop, loot);
                 items.add(loot);
                 enemiesToRemove.add(enemy);
             }
-
-        }
-
-        if (combatOccurred) { // prevents printing the map twice when you do a non combat action
-            map.revealNearby(player.getPosition());
-            map.displayMap();
         }
 
         enemies.removeAll(enemiesToRemove);
+    }
 
+    /**
+     * Lets the attacker attack the defender and publishes that the defender evaded, or the
+     * damage dealt otherwise, which may be 0 when the attack missed or was fully absorbed.
+     * @return true if the attacker could reach the defender
+     */
+    private boolean attack(AbstractCharacter attacker, AbstractCharacter defender) {
+        int before = defender.getHealth();
+        defender.setEvaded(false); // an attack that misses never reaches receiveDamage
+        if (!CombatSystem.resolveCombat(attacker, defender)) return false;
+        if (eventBus.isActive()) {
+            if (defender.hasEvaded()) {
+                eventBus.publish(GameEvent.Type.EVADED, defender, attacker, 0);
+            } else {
+                eventBus.publish(GameEvent.Type.DAMAGE_DEALT, defender, attacker, before - defender.getHealth());
+            }
+        }
+        return true;
+    }
 
-        System.out.println("=== Your Turn ===");
-        System.out.println("Choose : [move] [use potion] [loot] [show stats] [exit]");
-        String input = scanner.nextLine().trim().toLowerCase();
-
-        switch (input) {
-            case "move" -> {
-                System.out.println("Direction? [up][down][left][right]");
-                String direction = scanner.nextLine().trim().toLowerCase();
-                instance.getMap().moveEntity(player, direction);
+    /**
+     * Applies the player's command to the world. Does no input or output, what happened is
+     * published on the {@link #getEventBus() event bus}.
+     */
+    public void apply(Command command) {
+        if (command == null) {
+            throw new IllegalArgumentException("Command must not be null");
+        }
+        if (over) return;
+        PlayerCharacter player = players.get(0);
 
+        switch (command.getType()) {
+            case MOVE -> {
+                boolean moved = map.moveEntity(player, command.getDirection());
+                eventBus.publish(moved ? GameEvent.Type.MOVED : GameEvent.Type.MOVE_BLOCKED, player, null, 0);
             }
 
-            case "use potion" -> {
+            case USE_POTION, USE_POWER_POTION -> {
                 if (player.getInventory().getItems().isEmpty()) {
-                    System.out.println("You don't have any potions in your inventory!");
-                    break;
-                }
-
-                System.out.println("Which kind of potion do you want to use? | 1 = Healing Potion | 2 = Power potion");
-                int selectP = scanner.nextInt();
-                scanner.nextLine();
-
-                switch (selectP) {
-                    case 1 -> {
-                        for (GameItem item1 : player.getInventory().getItems()) {
-                            if (item1.isHealingPotion()) {
-                                player.usePotion();
-                                ((Potion) item1).setIsPotionUsed(true); // this down casting is safe because of the isHealingPotion method, this only happens when the item is a healing potion
-                                System.out.println("Used health Potion!");
-                                System.out.println("Your new health is: " + player.getHealth());
-                                break;
-                            }
-                        }
+                    eventBus.publish(GameEvent.Type.NO_POTIONS, player, null, 0);
+                } else if (command.getType() == Command.Type.USE_POTION) {
+                    if (player.usePotion()) {
+                        eventBus.publish(GameEvent.Type.POTION_USED, player, null, player.getHealth());
+                    } else {
+                        eventBus.publish(GameEvent.Type.NO_SUCH_POTION, player, null, 0);
                     }
-                    case 2 -> {
-                        for (GameItem item2 : player.getInventory().getItems()) {
-                            if (item2.isPowerPotion()) {
-                                player.UsePowerPotion();
-                                ((Potion) item2).setIsPotionUsed(true); // this down casting is safe because of the isPowerPotion method, this only happens when the item is a power potion
-                                System.out.println("Used power potion!");
-                                System.out.println("Your new power is: " + player.getPower());
-                                break;
-                            }
-                        }
+                } else {
+                    if (player.UsePowerPotion()) {
+                        eventBus.publish(GameEvent.Type.POWER_POTION_USED, player, null, player.getPower());
+                    } else {
+                        eventBus.publish(GameEvent.Type.NO_SUCH_POTION, player, null, 0);
                     }
-
-                    default -> System.out.println("Invalid choice");
-
                 }
-
             }
-            case "loot" -> {
-                for (GameItem item : items) {
-                    if (item.getVisible()) {
-                        if (player.getPosition().distanceTo(item.getPosition()) == 1) {
-                            item.pickUp(player);
-                            map.removeEntity(item);
-                            itemsToRemove.add(item);
-                        }
+
+            case LOOT -> {
+                // only the item layer of the four cells next to the player is looked at, never walls or enemies
+                int row = player.getPosition().getRow();
+                int col = player.getPosition().getCol();
+                for (Direction side : Direction.values()) {
+                    int r = row + side.getRowStep();
+                    int c = col + side.getColStep();
+                    GameEntity entity = map.getEntity(r, c, Layer.ITEM);
+                    if (entity != null && map.isVisible(player, r, c)) {
+                        GameItem item = (GameItem) entity; // the item layer only holds items
+                        item.pickUp(player);
+                        map.removeEntity(item);
+                        items.remove(item);
+                        eventBus.publish(GameEvent.Type.ITEM_LOOTED, item, player, 0);
                     }
                 }
-
-                items.removeAll(itemsToRemove);
             }
 
-            case "show stats" -> {
-                System.out.println("Player: " + player.getName());
-                System.out.println("Health: " + player.getHealth());
-                System.out.println("Power: " + player.getPower());
-                System.out.println("Treasure Points: " + player.getTreasurePoints());
-                System.out.println("Inventory: " + player.getInventory().getItems().size() + " item(s)");
-            }
+            case STATS -> eventBus.publish(GameEvent.Type.STATS, player, null, 0);
 
-            case "exit" -> {
-                System.out.println("Exiting game........");
-                System.out.println("final stats: ");
-                System.out.println("Health: " + player.getHealth());
-                System.out.println("Power: " + player.getPower());
-                System.out.println("Treasure Points: " + player.getTreasurePoints());
-                return  false;
+            case EXIT -> {
+                eventBus.publish(GameEvent.Type.GAME_EXITED, player, null, 0);
+                over = true;
             }
+        }
+    }
+
+    /**
+     * The players turn during a console game, reading the command from the scanner and
+     * printing to {@code System.out}.
+     */
+    public boolean turn(Scanner scanner) {
+        return turn(scanner, System.out);
+    }
 
-            default -> System.out.println("Unknown command.");
+    /**
+     * The players turn of a text game, a thin front end over {@link #engage()} and
+     * {@link #apply(Command)} that reads the command from the scanner. The console is a
+     * subscriber of the event bus like any other, it prints the events to out. The map is
+     * drawn by the renderer of the map.
+     */
+    public boolean turn(Scanner scanner, PrintStream out) {
+        if (console == null) {
+            console = eventBus.subscribe();
+        }
+
+        map.displayMap(); // the map reveals the player's surroundings itself on every move
 
+        engage();
+        boolean fought = print(out);
+        if (over) {
+            return false;
+        }
+        if (fought) { // prevents printing the map twice when you do a non combat action
+            map.displayMap();
         }
 
+        out.println("=== Your Turn ===");
+        out.println("Choose : [move] [use potion] [loot] [show stats] [exit]");
+        String input = scanner.nextLine().trim().toLowerCase();
+
+        Command command = switch (input) {
+            case "move" -> {
+                out.println("Direction? [up][down][left][right]");
+                Direction direction = Direction.parse(scanner.nextLine().trim());
+                yield direction == null ? null : Command.move(direction);
+            }
+            case "use potion" -> {
+                if (player().getInventory().getItems().isEmpty()) {
+                    yield Command.USE_POTION; // reports that there are no potions
+                }
+                out.println("Which kind of potion do you want to use? | 1 = Healing Potion | 2 = Power potion");
+                String kind = scanner.nextLine().trim();
+                yield switch (kind) {
+                    case "1" -> Command.USE_POTION;
+                    case "2" -> Command.USE_POWER_POTION;
+                    default -> {
+                        out.println("Invalid choice");
+                        yield null;
+                    }
+                };
+            }
+            case "loot" -> Command.LOOT;
+            case "show stats" -> Command.STATS;
+            case "exit" -> Command.EXIT;
+            default -> {
+                out.println("Unknown command.");
+                yield null;
+            }
+        };
+
+        if (command != null) {
+            apply(command);
+            print(out);
+        }
+        return !over;
+    }
 
+    /**
+     * reads a side of the map, asking again until it is between the smallest side and maxSide
+     */
+    private static int readSide(Scanner scanner, PrintStream out, int maxSide) {
+        while (true) {
+            out.print(maxSide == Integer.MAX_VALUE
+                    ? "Enter at least " + GameMap.MIN_SIDE + ": "
+                    : "Enter " + GameMap.MIN_SIDE + "-" + maxSide + ": ");
+            out.flush();
+            try {
+                int side = Integer.parseInt(scanner.nextLine().trim());
+                if (side >= GameMap.MIN_SIDE && side <= maxSide) {
+                    return side;
+                }
+            } catch (NumberFormatException e) {
+                // invalid input, retry
+            }
+        }
+    }
 
-        return true;
+    /**
+     * collects every enemy on the map, players are left out
+     */
+    private static List<Enemy> enemiesOn(GameMap map) {
+        List<Enemy> enemies = new ArrayList<>();
+        for (GameEntity e : map.getEntities(Layer.ACTOR)) {
+            if (e instanceof Enemy enemy) enemies.add(enemy);
+        }
+        return enemies;
+    }
+
+    /**
+     * collects every item on the map, walls are terrain and left out
+     */
+    private static List<GameItem> itemsOn(GameMap map) {
+        List<GameItem> items = new ArrayList<>();
+        for (GameEntity e : map.getEntities(Layer.ITEM)) {
+            items.add((GameItem) e);
+        }
+        return items;
+    }
 
+    private PlayerCharacter player() {
+        return players.get(0);
+    }
 
+    /**
+     * prints the events the console did not see yet, returns true if a fight started among them
+     */
+    private boolean print(PrintStream out) {
+        combatShown = false;
+        console.poll((type, subject, other, value) -> {
+            if (type == GameEvent.Type.COMBAT_STARTED) combatShown = true;
+            String message = new GameEvent(type, subject, other, value).getMessage();
+            if (!message.isEmpty()) {
+                out.println(message);
+            }
+        });
+        return combatShown;
     }
 
 
@@ -284,24 +439,47 @@ public class GameWorld {
          * method for starting the game in the main method
          */
         public static void startGame () {
-            Scanner scanner = new Scanner(System.in);
+            startGame(System.in, System.out);
+        }
+
+
+        /**
+         * Plays one whole game over the given streams, with no limit on the map size
+         */
+        public static void startGame (InputStream in, PrintStream out) {
+            startGame(in, out, Integer.MAX_VALUE);
+        }
+
 
-            System.out.println("------------Welcome to Dungeons and Dragons!------------");
-            System.out.println("Enter your name: ");
+        /**
+         * Plays one whole game over the given streams, the console game reads System.in and
+         * writes to System.out, the game server a connection. Every call builds a world of its
+         * own, so any amount of games can run at the same time. The rows and columns of the
+         * map are asked again until they are between {@link GameMap#MIN_SIDE} and maxSide.
+         */
+        public static void startGame (InputStream in, PrintStream out, int maxSide) {
+            if (maxSide < GameMap.MIN_SIDE) {
+                throw new IllegalArgumentException("Maximum map side must be at least " + GameMap.MIN_SIDE);
+            }
+            Scanner scanner = new Scanner(in);
+
+            out.println("------------Welcome to Dungeons and Dragons!------------");
+            out.println("Enter your name: ");
 
             String name = scanner.nextLine().trim();
 
             PlayerCharacter player = null;
 
-            System.out.println("Choose your character class:");
-            System.out.println("1. Warrior");
-            System.out.println("2. Mage");
-            System.out.println("3. Archer");
+            out.println("Choose your character class:");
+            out.println("1. Warrior");
+            out.println("2. Mage");
+            out.println("3. Archer");
 
 
             int choice = -1;
             while (choice < 1 || choice > 3) {
-                System.out.print("Enter 1-3: ");
+                out.print("Enter 1-3: ");
+                out.flush();
                 try {
                     choice = Integer.parseInt(scanner.nextLine());
                 } catch (NumberFormatException e) {
@@ -320,25 +498,17 @@ public class GameWorld {
             players.add(player);
 
 
-            System.out.println("How many rows do you want the map to have?");
-            int rows = Integer.parseInt(scanner.nextLine());
-            System.out.println("How many cols do you want the map to have?");
-            int cols = Integer.parseInt(scanner.nextLine());
+            out.println("How many rows do you want the map to have?");
+            int rows = readSide(scanner, out, maxSide);
+            out.println("How many cols do you want the map to have?");
+            int cols = readSide(scanner, out, maxSide);
 
             GameMap map = new GameMap(rows, cols, player);
+            map.setRenderer(new FrameRenderer(out));
 
-            List<Enemy> enemies = new ArrayList<>();
-            List<GameItem> items = new ArrayList<>();
-            for (GameEntity e : map.getAllEntities()) {
-                if (e instanceof Enemy)     enemies.add((Enemy)e);
-                if (e instanceof GameItem)  items.add((GameItem)e);
-            }
-
-            GameWorld.getInstance(players, enemies, items, map);
-
-            GameWorld world = instance;
+            GameWorld world = new GameWorld(players, enemiesOn(map), itemsOn(map), map);
 
-            while (world.turn(scanner)) {
+            while (world.turn(scanner, out)) {
                 // The turn method handles game progression
             }
 
@@ -1,6 +1,7 @@
 package game.items;
 import game.characters.PlayerCharacter;
 import game.core.GameEntity;
+import game.core.Layer;
 import game.map.Position;
 import java.util.Objects;
 
@@ -36,7 +37,7 @@ public abstract class GameItem implements GameEntity {
     * @param description the textual description of the item
     */
     public GameItem(Position position, String description) {
-        this.position = new Position(position);
+        this.position = position;
         this.description = description;
     }
 
@@ -84,12 +85,12 @@ public abstract class GameItem implements GameEntity {
     }
 
     /**
-     * implements the set position method in the game entity interface
-     * returns boolean if the position was successfully set
+     * implements the set position method in the game entity interface,
+     * positions can't change so no copy is needed
      */
     @Override
     public void setPosition(Position newPos) {
-        position = new Position(newPos);
+        position = newPos;
     }
 
     /**
@@ -98,6 +99,14 @@ public abstract class GameItem implements GameEntity {
     @Override
     public abstract String getDisplaySymbol();
 
+    /**
+     * items lie on the item layer unless they are part of the terrain
+     */
+    @Override
+    public Layer getLayer() {
+        return Layer.ITEM;
+    }
+
     /**
      * implements the set visible method in the game entity interface
      */
@@ -1,6 +1,6 @@
 package game.items;
 import game.map.Position;
-import java.util.Random;
+import java.util.SplittableRandom;
 import game.characters.PlayerCharacter;
 import java.util.Objects;
 
@@ -16,13 +16,31 @@ public class Potion extends GameItem implements Interactable {
      * Constructs a new Potion at the specified position with a random healing amount.
      */
     public Potion(Position position) {
+        this(position, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new Potion whose healing amount is rolled from the given random generator.
+     */
+    public Potion(Position position, SplittableRandom rand) {
         super(position, "Health potion");
-        this.increaseAmount = new Random().nextInt(41) + 10; // 10–50
+        this.increaseAmount = rand.nextInt(41) + 10; // 10–50
         this.isUsed = false;
         this.setVisible(false);
         this.setBlocksMovement(true);
     }
 
+    /**
+     * Constructs a Potion with the given healing amount, used when a saved map is loaded.
+     */
+    public Potion(Position position, int increaseAmount, boolean isUsed) {
+        super(position, "Health potion");
+        this.increaseAmount = increaseAmount;
+        this.isUsed = isUsed;
+        this.setVisible(false);
+        this.setBlocksMovement(true);
+    }
+
     /**
      * getter for isUsed field, checks if the potion was used or not
      */
@@ -2,7 +2,7 @@ package game.items;
 import game.characters.PlayerCharacter;
 import game.map.Position;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * represents the power potions in the game
@@ -13,8 +13,23 @@ public class PowerPotion extends Potion{
      * Constructs a new Potion at the specified position with a random healing amount.
      */
     public PowerPotion(Position position) {
-        super(position);
-        this.setIncreaseAmount(new Random().nextInt(5) + 1); // 1-5
+        this(position, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new PowerPotion whose power amount is rolled from the given random generator.
+     */
+    public PowerPotion(Position position, SplittableRandom rand) {
+        super(position, rand);
+        this.setIncreaseAmount(rand.nextInt(5) + 1); // 1-5
+        this.setDescription("Power Potion");
+    }
+
+    /**
+     * Constructs a PowerPotion with the given power amount, used when a saved map is loaded.
+     */
+    public PowerPotion(Position position, int increaseAmount, boolean isUsed) {
+        super(position, increaseAmount, isUsed);
         this.setDescription("Power Potion");
     }
 
@@ -2,7 +2,7 @@ package game.items;
 import game.characters.PlayerCharacter;
 import game.map.Position;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * represents the treasure in the game
@@ -55,18 +55,18 @@ public class Treasure extends GameItem implements Interactable {
             return;
         }
 
-        Random rand = new Random();
+        SplittableRandom rand = c.getRandom(); // rolled with the dice of the player
         int roll = rand.nextInt(6); // 0 to 5
 
         if (roll == 0) {
-            c.addToInventory(new PowerPotion(this.getPosition()));
+            c.addToInventory(new PowerPotion(this.getPosition(), rand));
         }
         else if (roll == 1 || roll == 2 || roll == 3) { // 3/6 → 1/2 chance
-            int treasureValue = new Random().nextInt(201) + 100; // 100–300
+            int treasureValue = rand.nextInt(201) + 100; // 100–300
             c.updateTreasurePoint(treasureValue);
         }
         else {               // Remaining 2/6 → 1/3 chance
-            c.addToInventory(new Potion(this.getPosition()));
+            c.addToInventory(new Potion(this.getPosition(), rand));
         }
         collected = true;
     }
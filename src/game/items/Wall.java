@@ -1,5 +1,6 @@
 package game.items;
 import game.characters.PlayerCharacter;
+import game.core.Layer;
 import game.map.Position;
 import java.util.Objects;
 
@@ -27,6 +28,14 @@ public class Wall extends GameItem {
         return "#";
     }
 
+    /**
+     * walls are part of the terrain
+     */
+    @Override
+    public Layer getLayer() {
+        return Layer.TERRAIN;
+    }
+
     /**
      * overrides the method in game item class
      */
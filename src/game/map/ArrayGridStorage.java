@@ -0,0 +1,189 @@
+package game.map;
+import game.core.GameEntity;
+import game.core.Layer;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Dense map layout with one slot per cell and {@link Layer}, indexed by {@code row * cols + col}.
+ *
+ * <p>
+ * Every layer has its own slot array, so a cell can hold a wall, an item and an actor
+ * at the same time and each of them is found without looking at the others. Almost
+ * every cell holds at most one entity per layer, so that entity lives directly in the
+ * slot. The rare extra entities on the same layer of a cell are kept in a small overflow
+ * map, which means an empty or single entity cell costs array references instead of a
+ * {@link Position} key and an {@link ArrayList}.
+ *
+ * <p>
+ * What blocks each cell is kept next to the slots in {@link BlockingBits}.
+ */
+class ArrayGridStorage implements GridStorage {
+
+    private static final Layer[] TOP_DOWN = Layer.topDown();
+
+    private final GameEntity[][] layers;
+    private final Map<Integer, List<GameEntity>> overflow;
+    private final BlockingBits blocking;
+
+    /**
+     * constructs an empty storage with room for the given amount of cells
+     */
+    ArrayGridStorage(int cells) {
+        this.layers = new GameEntity[Layer.values().length][cells];
+        this.overflow = new HashMap<>();
+        this.blocking = new BlockingBits(cells);
+    }
+
+    @Override
+    public void add(int index, GameEntity entity) {
+        GameEntity[] slots = layers[entity.getLayer().ordinal()];
+        if (slots[index] == null) {
+            slots[index] = entity;
+        } else {
+            overflow.computeIfAbsent(index, i -> new ArrayList<>(2)).add(entity);
+        }
+        blocking.added(index, entity);
+    }
+
+    @Override
+    public boolean remove(int index, GameEntity entity) {
+        GameEntity[] slots = layers[entity.getLayer().ordinal()];
+        if (slots[index] == null) return false;
+
+        List<GameEntity> extra = overflow.isEmpty() ? null : overflow.get(index);
+        if (slots[index] == entity) {
+            // promote the next entity of the same layer on the cell into the slot
+            slots[index] = extra == null ? null : takeFirst(extra, entity.getLayer());
+        } else if (extra == null || !extra.remove(entity)) {
+            return false;
+        }
+
+        if (extra != null && extra.isEmpty()) {
+            overflow.remove(index);
+        }
+        blocking.removed(index, this);
+        return true;
+    }
+
+    private static GameEntity takeFirst(List<GameEntity> extra, Layer layer) {
+        for (int i = 0; i < extra.size(); i++) {
+            if (extra.get(i).getLayer() == layer) {
+                return extra.remove(i);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<GameEntity> get(int index) {
+        List<GameEntity> entities = new ArrayList<>();
+        for (Layer layer : TOP_DOWN) {
+            GameEntity entity = layers[layer.ordinal()][index];
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
+        if (!entities.isEmpty() && !overflow.isEmpty()) {
+            List<GameEntity> extra = overflow.get(index);
+            if (extra != null) {
+                entities.addAll(extra);
+            }
+        }
+        return entities;
+    }
+
+    @Override
+    public GameEntity first(int index) {
+        for (Layer layer : TOP_DOWN) {
+            GameEntity entity = layers[layer.ordinal()][index];
+            if (entity != null) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public GameEntity first(int index, Layer layer) {
+        return layers[layer.ordinal()][index];
+    }
+
+    @Override
+    public boolean isEmpty(int index) {
+        for (GameEntity[] slots : layers) {
+            if (slots[index] != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        return blocking.isBlocked(index);
+    }
+
+    @Override
+    public boolean isStaticBlocked(int index) {
+        return blocking.isStaticBlocked(index);
+    }
+
+    @Override
+    public boolean anyMatch(int index, Predicate<GameEntity> test) {
+        boolean any = false;
+        for (GameEntity[] slots : layers) {
+            GameEntity entity = slots[index];
+            if (entity != null) {
+                if (test.test(entity)) {
+                    return true;
+                }
+                any = true;
+            }
+        }
+        // most maps never stack entities, so skip the boxed lookup when nothing is stacked
+        if (!any || overflow.isEmpty()) {
+            return false;
+        }
+        List<GameEntity> extra = overflow.get(index);
+        if (extra != null) {
+            for (GameEntity entity : extra) {
+                if (test.test(entity)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachEntity(Consumer<GameEntity> action) {
+        for (GameEntity[] slots : layers) {
+            for (GameEntity entity : slots) {
+                if (entity != null) {
+                    action.accept(entity);
+                }
+            }
+        }
+        for (List<GameEntity> extra : overflow.values()) {
+            extra.forEach(action);
+        }
+    }
+
+    @Override
+    public void forEachEntity(Layer layer, Consumer<GameEntity> action) {
+        for (GameEntity entity : layers[layer.ordinal()]) {
+            if (entity != null) {
+                action.accept(entity);
+            }
+        }
+        for (List<GameEntity> extra : overflow.values()) {
+            for (GameEntity entity : extra) {
+                if (entity.getLayer() == layer) {
+                    action.accept(entity);
+                }
+            }
+        }
+    }
+}
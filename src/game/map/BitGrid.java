@@ -0,0 +1,37 @@
+package game.map;
+
+/**
+ * A fixed size set of bits, one per cell of the map, packed into longs.
+ */
+class BitGrid {
+
+    private final long[] words;
+
+    /**
+     * constructs a bit grid with every bit cleared
+     */
+    BitGrid(int cells) {
+        this.words = new long[(cells + 63) >>> 6];
+    }
+
+    /**
+     * checks if the bit of the cell is set
+     */
+    boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * sets the bit of the cell
+     */
+    void set(int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * clears the bit of the cell
+     */
+    void clear(int index) {
+        words[index >>> 6] &= ~(1L << index);
+    }
+}
@@ -0,0 +1,79 @@
+package game.map;
+import game.core.GameEntity;
+import game.items.GameItem;
+import java.util.function.Predicate;
+
+/**
+ * Two bits per cell that tell what is in the way on the cell, kept up to date by the storage
+ * on every add and remove so collision checks never look at the entities.
+ *
+ * <p>
+ * A cell is <b>blocked</b> when nothing else can step onto it: an item whose
+ * {@link GameItem#getBlocksMovement()} is true, or any character, since two characters
+ * never share a cell. A cell is <b>statically blocked</b> when only the blocking items are
+ * counted, which is what path finding plans around, since characters move away.
+ */
+class BlockingBits {
+
+    /**
+     * tells if the entity keeps others from stepping onto its cell
+     */
+    static final Predicate<GameEntity> BLOCKS =
+            e -> !(e instanceof GameItem item) || item.getBlocksMovement();
+
+    /**
+     * tells if the entity is an item that blocks movement
+     */
+    static final Predicate<GameEntity> BLOCKS_STATIC =
+            e -> e instanceof GameItem item && item.getBlocksMovement();
+
+    private final BitGrid blocked;
+    private final BitGrid staticBlocked;
+
+    /**
+     * constructs the bits for the given amount of cells, with nothing blocked
+     */
+    BlockingBits(int cells) {
+        this.blocked = new BitGrid(cells);
+        this.staticBlocked = new BitGrid(cells);
+    }
+
+    /**
+     * updates the bits of a cell after the entity was added to it
+     */
+    void added(int index, GameEntity entity) {
+        if (BLOCKS.test(entity)) {
+            blocked.set(index);
+            if (BLOCKS_STATIC.test(entity)) {
+                staticBlocked.set(index);
+            }
+        }
+    }
+
+    /**
+     * updates the bits of a cell after an entity was removed from it, by looking at what is left
+     */
+    void removed(int index, GridStorage cells) {
+        if (!blocked.get(index)) return;
+        if (!cells.anyMatch(index, BLOCKS)) {
+            blocked.clear(index);
+            staticBlocked.clear(index);
+        } else if (staticBlocked.get(index) && !cells.anyMatch(index, BLOCKS_STATIC)) {
+            staticBlocked.clear(index);
+        }
+    }
+
+    /**
+     * checks if nothing else can step onto the cell
+     */
+    boolean isBlocked(int index) {
+        return blocked.get(index);
+    }
+
+    /**
+     * checks if an item that blocks movement is on the cell
+     */
+    boolean isStaticBlocked(int index) {
+        return staticBlocked.get(index);
+    }
+}
@@ -0,0 +1,109 @@
+package game.map;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Rooms and corridors laid out with binary space partitioning.
+ *
+ * <p>
+ * Every chunk is split in two along its longer side until the parts are smaller than
+ * twice {@link #MIN_LEAF}, every part gets a room, and sibling parts are joined with a
+ * corridor. Finally a room is joined to the middle of each of the four chunk edges. The
+ * chunk next door does the same on its side of the shared edge, so the corridors meet
+ * and the whole map stays connected.
+ */
+public class BspGenerator extends LayoutGenerator {
+
+    /**
+     * the smallest side a part can be split into
+     */
+    public static final int MIN_LEAF = 8;
+
+    /**
+     * constructs a BSP generator with the default population
+     */
+    public BspGenerator() {
+        this(0.04, 0.03);
+    }
+
+    /**
+     * constructs a BSP generator with the chance of an enemy and of a potion on a floor cell
+     */
+    public BspGenerator(double enemyChance, double potionChance) {
+        super(enemyChance, potionChance);
+    }
+
+    @Override
+    protected boolean[] layout(long seed, int top, int left, int height, int width, SplittableRandom rand) {
+        boolean[] walls = new boolean[height * width];
+        Arrays.fill(walls, true);
+
+        int center = split(walls, width, 0, 0, height, width, rand);
+        int centerRow = center / width;
+        int centerCol = center % width;
+        corridor(walls, width, centerRow, centerCol, 0, width / 2);
+        corridor(walls, width, centerRow, centerCol, height - 1, width / 2);
+        corridor(walls, width, centerRow, centerCol, height / 2, 0);
+        corridor(walls, width, centerRow, centerCol, height / 2, width - 1);
+        return walls;
+    }
+
+    /**
+     * carves the rooms of a part and joins its two halves
+     * @return the local index of the center of one of the rooms in the part
+     */
+    private int split(boolean[] walls, int stride, int top, int left, int height, int width, SplittableRandom rand) {
+        boolean splitRows = height >= width;
+        int length = splitRows ? height : width;
+
+        if (length < 2 * MIN_LEAF) {
+            return room(walls, stride, top, left, height, width, rand);
+        }
+
+        int cut = MIN_LEAF + rand.nextInt(length - 2 * MIN_LEAF + 1);
+        int a;
+        int b;
+        if (splitRows) {
+            a = split(walls, stride, top, left, cut, width, rand);
+            b = split(walls, stride, top + cut, left, height - cut, width, rand);
+        } else {
+            a = split(walls, stride, top, left, height, cut, rand);
+            b = split(walls, stride, top, left + cut, height, width - cut, rand);
+        }
+        corridor(walls, stride, a / stride, a % stride, b / stride, b % stride);
+        return rand.nextBoolean() ? a : b;
+    }
+
+    /**
+     * carves a room with a wall border inside the part, parts too thin for a border are all floor
+     */
+    private int room(boolean[] walls, int stride, int top, int left, int height, int width, SplittableRandom rand) {
+        int roomTop = top;
+        int roomLeft = left;
+        int roomHeight = height;
+        int roomWidth = width;
+        if (height >= 5 && width >= 5) {
+            roomHeight = 3 + rand.nextInt(height - 4);
+            roomWidth = 3 + rand.nextInt(width - 4);
+            roomTop = top + 1 + rand.nextInt(height - 1 - roomHeight);
+            roomLeft = left + 1 + rand.nextInt(width - 1 - roomWidth);
+        }
+
+        for (int r = roomTop; r < roomTop + roomHeight; r++) {
+            Arrays.fill(walls, r * stride + roomLeft, r * stride + roomLeft + roomWidth, false);
+        }
+        return (roomTop + roomHeight / 2) * stride + roomLeft + roomWidth / 2;
+    }
+
+    /**
+     * carves an L shaped corridor, first along the row and then along the column
+     */
+    private void corridor(boolean[] walls, int stride, int fromRow, int fromCol, int toRow, int toCol) {
+        for (int c = Math.min(fromCol, toCol); c <= Math.max(fromCol, toCol); c++) {
+            walls[fromRow * stride + c] = false;
+        }
+        for (int r = Math.min(fromRow, toRow); r <= Math.max(fromRow, toRow); r++) {
+            walls[r * stride + toCol] = false;
+        }
+    }
+}
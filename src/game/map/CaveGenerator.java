@@ -0,0 +1,88 @@
+package game.map;
+import java.util.SplittableRandom;
+
+/**
+ * Cave layouts grown with a cellular automaton.
+ *
+ * <p>
+ * The starting noise of a cell is a hash of the seed and the global coordinates of the
+ * cell, so it is the same no matter which chunk asks for it. Every smoothing step only
+ * looks at the neighbours of a cell, so a chunk is grown together with a margin of
+ * {@link #STEPS} cells around it, and after the last step its own cells come out exactly
+ * as if the whole map had been smoothed at once. Caves run on across chunk borders
+ * without seams.
+ */
+public class CaveGenerator extends LayoutGenerator {
+
+    /**
+     * the amount of smoothing steps, also the margin grown around every chunk
+     */
+    public static final int STEPS = 4;
+
+    private final double fill;
+
+    /**
+     * constructs a cave generator with the default wall fill and population
+     */
+    public CaveGenerator() {
+        this(0.45, 0.03, 0.02);
+    }
+
+    /**
+     * constructs a cave generator
+     * @param fill the chance of a cell to start as a wall
+     */
+    public CaveGenerator(double fill, double enemyChance, double potionChance) {
+        super(enemyChance, potionChance);
+        if (fill < 0 || fill > 1) {
+            throw new IllegalArgumentException("Fill must be between 0 and 1");
+        }
+        this.fill = fill;
+    }
+
+    @Override
+    protected boolean[] layout(long seed, int top, int left, int height, int width, SplittableRandom rand) {
+        int h = height + 2 * STEPS;
+        int w = width + 2 * STEPS;
+        boolean[] cur = new boolean[h * w];
+        boolean[] next = new boolean[h * w];
+
+        for (int r = 0; r < h; r++) {
+            for (int c = 0; c < w; c++) {
+                cur[r * w + c] = isNoiseWall(seed, top - STEPS + r, left - STEPS + c);
+            }
+        }
+
+        // every step leaves the outer ring stale, so after STEPS steps only the margin is off
+        for (int step = 0; step < STEPS; step++) {
+            for (int r = 1; r < h - 1; r++) {
+                for (int c = 1; c < w - 1; c++) {
+                    int i = r * w + c;
+                    int walls = 0;
+                    for (int dr = -w; dr <= w; dr += w) {
+                        for (int dc = -1; dc <= 1; dc++) {
+                            if ((dr != 0 || dc != 0) && cur[i + dr + dc]) {
+                                walls++;
+                            }
+                        }
+                    }
+                    next[i] = walls >= 5 || (cur[i] && walls == 4);
+                }
+            }
+            boolean[] swap = cur;
+            cur = next;
+            next = swap;
+        }
+
+        boolean[] walls = new boolean[height * width];
+        for (int r = 0; r < height; r++) {
+            System.arraycopy(cur, (r + STEPS) * w + STEPS, walls, r * width, width);
+        }
+        return walls;
+    }
+
+    private boolean isNoiseWall(long seed, int r, int c) {
+        long hash = MapGenerator.seedFor(seed, Position.pack(r, c));
+        return (hash >>> 11) * 0x1.0p-53 < fill;
+    }
+}
@@ -0,0 +1,325 @@
+package game.map;
+import game.core.GameEntity;
+import game.core.Layer;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Map storage for very large worlds that only keeps part of the map in memory.
+ *
+ * <p>
+ * The map is split into square chunks of {@link #CHUNK_SIZE} cells per side. A chunk
+ * is handed to a {@link DungeonGenerator} the first time one of its cells is accessed,
+ * and the generator builds it from the map seed and the chunk coordinates, so the same
+ * chunk always comes out with the same content.
+ *
+ * <p>
+ * At most {@link #DEFAULT_BUDGET} chunks stay resident. When the budget is exceeded the
+ * least recently used chunk that is not within {@link #KEEP_RADIUS} chunks of an anchor
+ * (a player) is evicted. Cells that changed since the chunk was generated are kept as a
+ * small diff, and put back when the chunk is generated again. Once the entities of a
+ * chunk were handed out by {@link #forEachEntity}, the cells holding items or actors are
+ * kept in the diff as well, even if they never changed: the world builds its lists of
+ * enemies and items that way, and a chunk that comes back must hold the very same
+ * objects, not new copies built by the generator. Walls are always built again.
+ *
+ * <p>
+ * {@link #forEachEntity} only sees the resident chunks and the kept diffs, so the
+ * entities of chunks that were never accessed are not iterated.
+ */
+class ChunkedGridStorage implements GridStorage {
+
+    /**
+     * the length of a chunk side in cells
+     */
+    static final int CHUNK_SIZE = 64;
+
+    /**
+     * the default amount of chunks kept in memory at the same time
+     */
+    static final int DEFAULT_BUDGET = 256;
+
+    /**
+     * chunks within this chunk distance of an anchor are never evicted
+     */
+    static final int KEEP_RADIUS = 2;
+
+    private final int rows;
+    private final int cols;
+    private final int chunkCols;
+    private final long seed;
+    private final int budget;
+    private final DungeonGenerator generator;
+    private final LinkedHashMap<Integer, Chunk> resident;
+    private final Map<Integer, ChunkDiff> diffs;
+    private final List<GameEntity> anchors;
+
+    // the last chunk used, most accesses hit the same chunk in a row, it is moved to the
+    // most recently used end of the resident chunks when the accesses move on to another one
+    private int lastIndex = -1;
+    private Chunk lastChunk;
+
+    /**
+     * constructs a chunked storage with the default budget
+     */
+    ChunkedGridStorage(int rows, int cols, long seed, DungeonGenerator generator) {
+        this(rows, cols, seed, generator, DEFAULT_BUDGET);
+    }
+
+    /**
+     * constructs a chunked storage that keeps at most the given amount of chunks in memory
+     */
+    ChunkedGridStorage(int rows, int cols, long seed, DungeonGenerator generator, int budget) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("Chunk budget must be at least 1");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.chunkCols = (cols + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.seed = seed;
+        this.budget = budget;
+        this.generator = generator;
+        this.resident = new LinkedHashMap<>(16, 0.75f, true);
+        this.diffs = new HashMap<>();
+        this.anchors = new ArrayList<>();
+    }
+
+    @Override
+    public void add(int index, GameEntity entity) {
+        Chunk chunk = chunkOf(index);
+        int local = localIndex(index);
+        chunk.cells.add(local, entity);
+        chunk.dirty.set(local);
+    }
+
+    @Override
+    public boolean remove(int index, GameEntity entity) {
+        Chunk chunk = chunkOf(index);
+        int local = localIndex(index);
+        if (chunk.cells.remove(local, entity)) {
+            chunk.dirty.set(local);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<GameEntity> get(int index) {
+        return chunkOf(index).cells.get(localIndex(index));
+    }
+
+    @Override
+    public GameEntity first(int index) {
+        return chunkOf(index).cells.first(localIndex(index));
+    }
+
+    @Override
+    public GameEntity first(int index, Layer layer) {
+        return chunkOf(index).cells.first(localIndex(index), layer);
+    }
+
+    @Override
+    public boolean isEmpty(int index) {
+        return chunkOf(index).cells.isEmpty(localIndex(index));
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        return chunkOf(index).cells.isBlocked(localIndex(index));
+    }
+
+    @Override
+    public boolean isStaticBlocked(int index) {
+        return chunkOf(index).cells.isStaticBlocked(localIndex(index));
+    }
+
+    @Override
+    public boolean anyMatch(int index, Predicate<GameEntity> test) {
+        return chunkOf(index).cells.anyMatch(localIndex(index), test);
+    }
+
+    @Override
+    public void forEachEntity(Consumer<GameEntity> action) {
+        for (Chunk chunk : resident.values()) {
+            chunk.handedOut = true;
+            chunk.cells.forEachEntity(action);
+        }
+        for (ChunkDiff diff : diffs.values()) {
+            for (GameEntity[] entities : diff.contents) {
+                for (GameEntity entity : entities) {
+                    action.accept(entity);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void forEachEntity(Layer layer, Consumer<GameEntity> action) {
+        for (Chunk chunk : resident.values()) {
+            chunk.handedOut = true;
+            chunk.cells.forEachEntity(layer, action);
+        }
+        for (ChunkDiff diff : diffs.values()) {
+            for (GameEntity[] entities : diff.contents) {
+                for (GameEntity entity : entities) {
+                    if (entity.getLayer() == layer) {
+                        action.accept(entity);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void addAnchor(GameEntity entity) {
+        if (entity != null) {
+            anchors.add(entity);
+        }
+    }
+
+    /**
+     * returns the amount of chunks currently in memory
+     */
+    int residentChunks() {
+        return resident.size();
+    }
+
+    private int chunkIndex(int index) {
+        return (index / cols / CHUNK_SIZE) * chunkCols + (index % cols) / CHUNK_SIZE;
+    }
+
+    private int localIndex(int index) {
+        return (index / cols % CHUNK_SIZE) * CHUNK_SIZE + index % cols % CHUNK_SIZE;
+    }
+
+    private Chunk chunkOf(int index) {
+        int chunkIndex = chunkIndex(index);
+        if (chunkIndex == lastIndex) {
+            return lastChunk;
+        }
+        if (lastChunk != null) {
+            resident.get(lastIndex); // it was used up to now, refresh it before anything is evicted
+        }
+
+        Chunk chunk = resident.get(chunkIndex);
+        if (chunk == null) {
+            chunk = generate(chunkIndex);
+            resident.put(chunkIndex, chunk);
+            evict(chunkIndex);
+        }
+        lastIndex = chunkIndex;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * generates a chunk from the seed and puts back the cells that changed before it was evicted
+     */
+    private Chunk generate(int chunkIndex) {
+        Chunk chunk = new Chunk();
+        int top = chunkIndex / chunkCols * CHUNK_SIZE;
+        int left = chunkIndex % chunkCols * CHUNK_SIZE;
+        int height = Math.min(CHUNK_SIZE, rows - top);
+        int width = Math.min(CHUNK_SIZE, cols - left);
+
+        GameEntity[] cells = MapGenerator.generateChunk(generator, seed, top, left, height, width);
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != null) {
+                chunk.cells.add(i / width * CHUNK_SIZE + i % width, cells[i]);
+            }
+        }
+
+        ChunkDiff diff = diffs.remove(chunkIndex);
+        if (diff != null) {
+            for (int i = 0; i < diff.offsets.length; i++) {
+                int local = diff.offsets[i];
+                for (GameEntity entity : chunk.cells.get(local)) {
+                    chunk.cells.remove(local, entity);
+                }
+                for (GameEntity entity : diff.contents[i]) {
+                    chunk.cells.add(local, entity);
+                }
+                chunk.dirty.set(local);
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * evicts least recently used chunks that are far from every anchor until the budget is met,
+     * the chunk that is being loaded right now is never evicted
+     */
+    private void evict(int loading) {
+        Iterator<Map.Entry<Integer, Chunk>> it = resident.entrySet().iterator();
+        while (resident.size() > budget && it.hasNext()) {
+            Map.Entry<Integer, Chunk> entry = it.next();
+            int chunkIndex = entry.getKey();
+            if (chunkIndex == loading || isNearAnchor(chunkIndex)) continue;
+
+            Chunk chunk = entry.getValue();
+            if (chunk.handedOut) {
+                keepEntities(chunk);
+            }
+            if (!chunk.dirty.isEmpty()) {
+                diffs.put(chunkIndex, new ChunkDiff(chunk));
+            }
+            it.remove();
+            if (chunkIndex == lastIndex) {
+                lastIndex = -1;
+                lastChunk = null;
+            }
+        }
+    }
+
+    /**
+     * marks every cell of the chunk that holds an item or an actor to be kept in its diff
+     */
+    private static void keepEntities(Chunk chunk) {
+        for (int local = 0; local < CHUNK_SIZE * CHUNK_SIZE; local++) {
+            if (chunk.cells.first(local, Layer.ITEM) != null || chunk.cells.first(local, Layer.ACTOR) != null) {
+                chunk.dirty.set(local);
+            }
+        }
+    }
+
+    private boolean isNearAnchor(int chunkIndex) {
+        int chunkRow = chunkIndex / chunkCols;
+        int chunkCol = chunkIndex % chunkCols;
+        for (GameEntity anchor : anchors) {
+            Position pos = anchor.getPosition();
+            if (pos == null) continue;
+            if (Math.abs(pos.getRow() / CHUNK_SIZE - chunkRow) <= KEEP_RADIUS
+                    && Math.abs(pos.getCol() / CHUNK_SIZE - chunkCol) <= KEEP_RADIUS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * a resident chunk, its cells, which of them changed since it was generated, and if
+     * its entities were handed out
+     */
+    private static class Chunk {
+        private final ArrayGridStorage cells = new ArrayGridStorage(CHUNK_SIZE * CHUNK_SIZE);
+        private final BitSet dirty = new BitSet(CHUNK_SIZE * CHUNK_SIZE);
+        private boolean handedOut;
+    }
+
+    /**
+     * the changed cells of an evicted chunk, stored as parallel arrays
+     */
+    private static class ChunkDiff {
+        private final int[] offsets;
+        private final GameEntity[][] contents;
+
+        private ChunkDiff(Chunk chunk) {
+            offsets = chunk.dirty.stream().toArray();
+            contents = new GameEntity[offsets.length][];
+            for (int i = 0; i < offsets.length; i++) {
+                contents[i] = chunk.cells.get(offsets[i]).toArray(new GameEntity[0]);
+            }
+        }
+    }
+}
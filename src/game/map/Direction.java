@@ -0,0 +1,50 @@
+package game.map;
+
+/**
+ * The four directions an entity can step in on the map.
+ */
+public enum Direction {
+
+    UP(-1, 0),
+    DOWN(1, 0),
+    LEFT(0, -1),
+    RIGHT(0, 1);
+
+    private static final Direction[] VALUES = values();
+
+    private final int rowStep;
+    private final int colStep;
+
+    Direction(int rowStep, int colStep) {
+        this.rowStep = rowStep;
+        this.colStep = colStep;
+    }
+
+    /**
+     * getter for the change in row of a step
+     */
+    public int getRowStep() {
+        return rowStep;
+    }
+
+    /**
+     * getter for the change in column of a step
+     */
+    public int getColStep() {
+        return colStep;
+    }
+
+    /**
+     * Finds the direction with the given name, ignoring case, without allocating anything.
+     * @return the direction, or null if the name is not a direction
+     */
+    public static Direction parse(String name) {
+        if (name == null) return null;
+        for (Direction direction : VALUES) {
+            if (direction.name().equalsIgnoreCase(name)) {
+                return direction;
+            }
+        }
+        return null;
+    }
+}
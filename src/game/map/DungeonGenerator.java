@@ -0,0 +1,24 @@
+package game.map;
+import game.core.GameEntity;
+
+/**
+ * Builds the starting content of a map, one chunk at a time.
+ *
+ * <p>
+ * A generator only ever sees the chunk it is asked for, so the memory it needs is
+ * bounded by the size of a chunk and not by the size of the map. The content of a chunk
+ * must only depend on the seed and the global coordinates of the chunk, never on which
+ * chunks were generated before it. That way a chunk can be generated on demand, dropped
+ * and generated again, and neighbouring chunks still line up.
+ */
+public interface DungeonGenerator {
+
+    /**
+     * Generates the chunk that starts at the given global row and column.
+     *
+     * @param seed the seed of the whole map
+     * @return an array of {@code height * width} cells indexed by
+     *         {@code localRow * width + localCol}, empty cells are null
+     */
+    GameEntity[] generateChunk(long seed, int top, int left, int height, int width);
+}
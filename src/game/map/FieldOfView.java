@@ -0,0 +1,159 @@
+package game.map;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Line of sight for the fog of war, found with recursive shadowcasting.
+ *
+ * <p>
+ * The view around the viewer is split into eight octants. Each octant is scanned row by
+ * row going away from the viewer, and every opaque cell casts a shadow, a range of slopes
+ * that the rows further out can no longer be seen through. Cells outside the map count as
+ * opaque. A cell is only shown if it is also within the radius, measured as a manhattan
+ * distance like the rest of the map.
+ *
+ * <p>
+ * The slopes of the edges of every cell only depend on its place in the octant, so they
+ * are worked out once per radius into an {@link OctantTable} and shared by every map. A
+ * reveal only visits the cells of the octants up to the radius and stops scanning a row
+ * as soon as it is in shadow, so the cost follows the cells in view and not the size of
+ * the map.
+ */
+class FieldOfView {
+
+    // how a position in the octant (across, depth) turns into a column and row offset:
+    // col = across * xx + depth * xy, row = across * yx + depth * yy
+    private static final int[][] OCTANTS = {
+            {1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+            {-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1}
+    };
+
+    private static final Map<Integer, OctantTable> TABLES = new ConcurrentHashMap<>();
+
+    private final GameMap map;
+
+    // the reveal that is running, kept here so the recursion only passes what changes
+    private FogOfWar fog;
+    private int viewer;
+    private int originRow;
+    private int originCol;
+    private OctantTable table;
+    private int[] octant;
+
+    /**
+     * constructs the field of view calculation for the given map
+     */
+    FieldOfView(GameMap map) {
+        this.map = map;
+    }
+
+    /**
+     * shows the viewer every cell within the radius that is not hidden behind an opaque cell,
+     * what the viewer saw before is left as it is
+     */
+    void reveal(FogOfWar fog, int viewer, int row, int col, int radius) {
+        if (!map.isInside(row, col)) return;
+        this.fog = fog;
+        this.viewer = viewer;
+        this.originRow = row;
+        this.originCol = col;
+        if (table == null || table.radius != radius) {
+            table = OctantTable.of(radius);
+        }
+
+        fog.show(viewer, row * map.getCols() + col);
+        for (int[] multipliers : OCTANTS) {
+            octant = multipliers;
+            castLight(1, 1.0, 0.0);
+        }
+        this.fog = null;
+    }
+
+    /**
+     * scans the octant from the given depth on, through the slopes between start and end
+     */
+    private void castLight(int firstDepth, double start, double end) {
+        if (start < end) return;
+        int radius = table.radius;
+        double newStart = 0;
+
+        for (int depth = firstDepth; depth <= radius; depth++) {
+            boolean blocked = false;
+            double[] left = table.left[depth];
+            double[] right = table.right[depth];
+            int firstInRange = table.firstInRange[depth];
+
+            for (int k = 0; k <= depth; k++) {
+                if (start < right[k]) continue;
+                if (end > left[k]) break;
+
+                int across = k - depth;
+                int r = originRow + across * octant[2] - depth * octant[3];
+                int c = originCol + across * octant[0] - depth * octant[1];
+                boolean inside = map.isInside(r, c);
+                if (inside && k >= firstInRange) {
+                    fog.show(viewer, r * map.getCols() + c);
+                }
+
+                boolean opaque = !inside || map.isOpaque(r, c);
+                if (blocked) {
+                    if (opaque) {
+                        newStart = right[k];
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (opaque && depth < radius) {
+                    blocked = true;
+                    castLight(depth + 1, start, left[k]);
+                    newStart = right[k];
+                }
+            }
+            if (blocked) break;
+        }
+    }
+
+    /**
+     * The slopes of the cell edges of an octant up to a radius.
+     *
+     * <p>
+     * Row {@code depth} of the octant has {@code depth + 1} cells, {@code k} going from the
+     * diagonal to the axis. {@code left} and {@code right} hold the slopes of the two edges
+     * of every cell, and {@code firstInRange} the first cell of the row that is within the
+     * manhattan radius.
+     */
+    static final class OctantTable {
+        private final int radius;
+        private final double[][] left;
+        private final double[][] right;
+        private final int[] firstInRange;
+
+        private OctantTable(int radius) {
+            this.radius = radius;
+            this.left = new double[radius + 1][];
+            this.right = new double[radius + 1][];
+            this.firstInRange = new int[radius + 1];
+            for (int depth = 1; depth <= radius; depth++) {
+                left[depth] = new double[depth + 1];
+                right[depth] = new double[depth + 1];
+                for (int k = 0; k <= depth; k++) {
+                    int across = k - depth;
+                    left[depth][k] = (across - 0.5) / (-depth + 0.5);
+                    right[depth][k] = (across + 0.5) / (-depth - 0.5);
+                }
+                // the manhattan distance of cell k is depth + (depth - k)
+                firstInRange[depth] = Math.max(0, 2 * depth - radius);
+            }
+        }
+
+        /**
+         * returns the table for the radius, building it the first time it is asked for
+         */
+        static OctantTable of(int radius) {
+            if (radius < 0) {
+                throw new IllegalArgumentException("Radius must not be negative");
+            }
+            return TABLES.computeIfAbsent(radius, OctantTable::new);
+        }
+    }
+}
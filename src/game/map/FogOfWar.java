@@ -0,0 +1,141 @@
+package game.map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps track of what every viewer (player) has explored and currently sees.
+ *
+ * <p>
+ * Each viewer owns two {@link BitGrid}s, one for the cells it has ever seen and one
+ * for the cells it sees right now, so the fog costs two bits per cell per player and
+ * never touches the entities on the map. The cells that are currently visible are
+ * also kept in a short list, so they can be cleared without scanning the whole map.
+ *
+ * <p>
+ * A third, much smaller grid keeps one bit per {@link #BLOCK} x {@link #BLOCK} area that
+ * has at least one explored cell, which is enough to draw an overview of the map
+ * without reading every cell.
+ */
+class FogOfWar {
+
+    /**
+     * the length of the side of an explored area in cells
+     */
+    static final int BLOCK = 8;
+
+    private final int rows;
+    private final int cols;
+    private final int blockCols;
+    private final List<View> views;
+
+    /**
+     * constructs the fog for a map with the given size and no viewers
+     */
+    FogOfWar(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.blockCols = (cols + BLOCK - 1) / BLOCK;
+        this.views = new ArrayList<>();
+    }
+
+    /**
+     * adds a new viewer with nothing explored
+     * @return the id of the viewer
+     */
+    int addViewer() {
+        views.add(new View(rows * cols, ((rows + BLOCK - 1) / BLOCK) * blockCols));
+        return views.size() - 1;
+    }
+
+    /**
+     * marks the cell as visible and explored for the viewer
+     */
+    void show(int viewer, int index) {
+        View view = views.get(viewer);
+        if (view.visible.get(index)) return;
+        view.visible.set(index);
+        view.explored.set(index);
+        view.exploredBlocks.set((index / cols / BLOCK) * blockCols + index % cols / BLOCK);
+        if (view.litCount == view.lit.length) {
+            view.lit = Arrays.copyOf(view.lit, view.lit.length * 2);
+        }
+        view.lit[view.litCount++] = index;
+    }
+
+    /**
+     * marks the cell as no longer visible for the viewer, it stays explored
+     */
+    void hide(int viewer, int index) {
+        View view = views.get(viewer);
+        if (!view.visible.get(index)) return;
+        view.visible.clear(index);
+        for (int i = 0; i < view.litCount; i++) {
+            if (view.lit[i] == index) {
+                view.lit[i] = view.lit[--view.litCount];
+                return;
+            }
+        }
+    }
+
+    /**
+     * hides every cell the viewer currently sees
+     */
+    void hideAll(int viewer) {
+        View view = views.get(viewer);
+        for (int i = 0; i < view.litCount; i++) {
+            view.visible.clear(view.lit[i]);
+        }
+        view.litCount = 0;
+    }
+
+    /**
+     * checks if the viewer sees the cell right now
+     */
+    boolean isVisible(int viewer, int index) {
+        return views.get(viewer).visible.get(index);
+    }
+
+    /**
+     * checks if the viewer has ever seen the cell
+     */
+    boolean isExplored(int viewer, int index) {
+        return views.get(viewer).explored.get(index);
+    }
+
+    /**
+     * checks if the viewer has seen any cell of the area with the given block coordinates
+     */
+    boolean isBlockExplored(int viewer, int blockRow, int blockCol) {
+        return views.get(viewer).exploredBlocks.get(blockRow * blockCols + blockCol);
+    }
+
+    /**
+     * runs the action on the index of every cell the viewer currently sees
+     */
+    void forEachVisible(int viewer, IntConsumer action) {
+        View view = views.get(viewer);
+        for (int i = 0; i < view.litCount; i++) {
+            action.accept(view.lit[i]);
+        }
+    }
+
+    /**
+     * the fog of a single viewer
+     */
+    private static class View {
+        private final BitGrid explored;
+        private final BitGrid visible;
+        private final BitGrid exploredBlocks;
+        private int[] lit;
+        private int litCount;
+
+        private View(int cells, int blocks) {
+            explored = new BitGrid(cells);
+            visible = new BitGrid(cells);
+            exploredBlocks = new BitGrid(blocks);
+            lit = new int[16];
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package game.map;
+import java.util.SplittableRandom;
+
+/**
+ * The set of free cells of a map, with constant time updates and uniform random picks.
+ *
+ * <p>
+ * The free cells are packed at the front of an array, and a second array points from
+ * every cell back to its place in the first one. Removing a cell moves the last free cell
+ * into its place, so both updates and picks touch a couple of slots no matter how full
+ * the map is. It costs two ints per cell.
+ */
+class FreeCellIndex {
+
+    private final int[] cells;
+    private final int[] slotOf;
+    private int size;
+
+    /**
+     * constructs the index for the given amount of cells, all of them free
+     */
+    FreeCellIndex(int cellCount) {
+        this.cells = new int[cellCount];
+        this.slotOf = new int[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            cells[i] = i;
+            slotOf[i] = i;
+        }
+        this.size = cellCount;
+    }
+
+    /**
+     * marks the cell as free, nothing happens if it already is
+     */
+    void markFree(int cell) {
+        if (slotOf[cell] >= 0) return;
+        cells[size] = cell;
+        slotOf[cell] = size;
+        size++;
+    }
+
+    /**
+     * marks the cell as taken, nothing happens if it already is
+     */
+    void markTaken(int cell) {
+        int slot = slotOf[cell];
+        if (slot < 0) return;
+        int last = cells[--size];
+        cells[slot] = last;
+        slotOf[last] = slot;
+        slotOf[cell] = -1;
+    }
+
+    /**
+     * checks if the cell is free
+     */
+    boolean isFree(int cell) {
+        return slotOf[cell] >= 0;
+    }
+
+    /**
+     * getter for the amount of free cells
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * returns a free cell picked uniformly at random, or -1 if there is none
+     */
+    int pick(SplittableRandom rand) {
+        return size == 0 ? -1 : cells[rand.nextInt(size)];
+    }
+}
@@ -1,14 +1,15 @@
 package game.map;
-import game.characters.Dragon;
-import game.characters.Goblin;
-import game.characters.Orc;
 import game.characters.PlayerCharacter;
 import game.core.GameEntity;
-import game.items.Potion;
-import game.items.PowerPotion;
+import game.core.Layer;
 import game.items.Wall;
+import game.render.FrameRenderer;
+import game.render.MapRenderer;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 
 /**
@@ -39,67 +40,139 @@ import java.util.stream.Collectors;
  */
 public class GameMap {
 
-    private Map <Position, List<GameEntity>> grid;
+    /**
+     * how many random cells a chunked map tries before it gives up on finding a free one
+     */
+    public static final int FREE_CELL_PROBES = 10_000;
+
+    /**
+     * the default manhattan distance the player can see around their position
+     */
+    public static final int REVEAL_RADIUS = 2;
+
+    /**
+     * the fewest rows and columns a map can have
+     */
+    public static final int MIN_SIDE = 10;
+
+    /**
+     * the length of the side of the areas used by {@link #isAreaExplored}
+     */
+    public static final int EXPLORED_AREA = FogOfWar.BLOCK;
+
+    /**
+     * batches with at least this many moves are checked in parallel by {@link #applyMoves}
+     */
+    public static final int PARALLEL_MOVES = 4096;
+
+    // shared so sight checks never allocate
+    private static final Predicate<GameEntity> BLOCKS_SIGHT =
+            e -> e instanceof Wall wall && wall.getBlocksMovement();
+
+    private GridStorage grid;
+    private StorageMode mode;
+    private FogOfWar fog;
+    private List<PlayerCharacter> viewers;
+    private List<MapListener> listeners;
+    private FieldOfView fieldOfView;
+    private int visionRadius;
+    private FreeCellIndex freeCells;
+    private RegionLabels regions;
+    private boolean lineOfSight;
+    private MapRenderer renderer;
     private int row;
     private int col;
 
     /**
-     * Constructs an empty GameMap.
+     * Constructs a randomly filled GameMap using the array storage.
      */
     public GameMap(int row, int col, PlayerCharacter player) {
-        if (row < 10 || col < 10) {
-            throw new IllegalArgumentException("Map must be at least 10x10");
+        this(row, col, player, StorageMode.ARRAY);
+    }
+
+    /**
+     * Constructs a randomly filled GameMap that keeps its cells in the given storage mode.
+     */
+    public GameMap(int row, int col, PlayerCharacter player, StorageMode mode) {
+        this(row, col, player, mode, new Random().nextLong());
+    }
+
+    /**
+     * Constructs a GameMap whose cells are rolled one by one from the given seed.
+     */
+    public GameMap(int row, int col, PlayerCharacter player, StorageMode mode, long seed) {
+        this(row, col, player, mode, seed, new ScatterGenerator());
+    }
+
+    /**
+     * Constructs a GameMap laid out by the given generator from the given seed.
+     *
+     * <p>
+     * The chunks are generated in parallel by the {@link MapGenerator}, and the same seed
+     * always gives the same map, in every storage mode. In {@link StorageMode#CHUNKED} mode
+     * nothing is generated up front, every chunk is generated the first time it is accessed.
+     */
+    public GameMap(int row, int col, PlayerCharacter player, StorageMode mode, long seed, DungeonGenerator generator) {
+        if (row < MIN_SIDE || col < MIN_SIDE) {
+            throw new IllegalArgumentException("Map must be at least " + MIN_SIDE + "x" + MIN_SIDE);
+        }
+        if (mode == null) {
+            throw new IllegalArgumentException("Storage mode must not be null");
+        }
+        if (generator == null) {
+            throw new IllegalArgumentException("Generator must not be null");
         }
 
         this.row = row;
         this.col = col;
-        this.grid = new HashMap<>();
-        Random rand = new Random();
-
-        for (int r = 0; r < row; r++) {
-            for (int c = 0; c < col; c++) {
-                double roll = rand.nextDouble();
-                Position pos = new Position(r, c);
-
-                if (roll < 0.4) {
-                    continue;
-                } else if (roll < 0.7) {
-                    GameEntity enemy = switch (rand.nextInt(3)) {
-                        case 0 -> new Goblin();
-                        case 1 -> new Orc();
-                        default -> new Dragon();
-                    };
-                    addEntity(pos, enemy);
-                } else if (roll < 0.8) {
-                    // 10% chance to add a wall
-                    addEntity(pos, new Wall(pos)); // assumes Wall also takes Position
-                } else {
-                    // 20% chance to add potion
-                    double potionType = rand.nextDouble();
-                    GameEntity potion;
-                    if (potionType < 0.75) {
-                        potion = new Potion(pos); // Position-based constructor
-                    } else {
-                        potion = new PowerPotion(pos); // Position-based constructor
-                    }
-                    addEntity(pos, potion);
+        this.mode = mode;
+        this.grid = switch (mode) {
+            case HASH -> new HashGridStorage(row * col, col);
+            case ARRAY -> new ArrayGridStorage(row * col);
+            case CHUNKED -> new ChunkedGridStorage(row, col, seed, generator);
+        };
+        this.fog = new FogOfWar(row, col);
+        this.viewers = new ArrayList<>();
+        this.listeners = new ArrayList<>();
+        this.fieldOfView = new FieldOfView(this);
+        this.visionRadius = REVEAL_RADIUS;
+        this.lineOfSight = true;
+        this.renderer = new FrameRenderer(System.out);
+        // chunked maps are too big to index every cell, they probe for free cells instead
+        this.freeCells = mode == StorageMode.CHUNKED ? null : new FreeCellIndex(row * col);
+        SplittableRandom rand = new SplittableRandom(seed);
+
+        if (mode != StorageMode.CHUNKED) {
+            GameEntity[] cells = MapGenerator.generate(row, col, seed, generator,
+                    ForkJoinPool.getCommonPoolParallelism());
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] != null) {
+                    addEntity(i / col, i % col, cells[i]);
                 }
             }
         }
 
-        Position playerPosition;
-        do {
-            int r = rand.nextInt(row);
-            int c = rand.nextInt(col);
-            playerPosition = new Position(r, c);
-        } while (!isPositionFree(playerPosition));
+        // the regions are labelled once the map is filled, the player starts in the biggest one
+        this.regions = mode == StorageMode.CHUNKED ? null : new RegionLabels(this);
+        addEntity(randomFreePosition(rand, regions == null ? -1 : regions.largestRegion()), player);
+        addViewer(player);
 
-        addEntity(playerPosition, player);
+    }
 
-        revealNearby(playerPosition);
 
+    /**
+     * checks if the coordinates are inside the borders of the map
+     */
+    public boolean isInside(int r, int c) {
+        return r >= 0 && r < row && c >= 0 && c < col;
     }
 
+    /**
+     * converts coordinates to the index of the cell in the storage
+     */
+    private int index(int r, int c) {
+        return r * col + c;
+    }
 
     /**
      * Adds a GameEntity to a specific position.
@@ -107,26 +180,64 @@ public class GameMap {
      */
     public boolean addEntity(Position pos, GameEntity entity) {
         if (pos == null || entity == null) return false;
-        grid.putIfAbsent(pos,new ArrayList<>());
-        grid.get(pos).add(entity);
+        if (!isInside(pos.getRow(), pos.getCol())) return false;
+        int index = index(pos.getRow(), pos.getCol());
+        grid.add(index, entity);
+        if (freeCells != null && grid.isBlocked(index)) {
+            freeCells.markTaken(index);
+        }
         entity.setPosition(pos);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).entityAdded(entity, pos.getRow(), pos.getCol());
+        }
         return true;
     }
 
+    /**
+     * Adds a GameEntity to the given coordinates, the entity keeps its position
+     * object if it is already there.
+     */
+    public boolean addEntity(int r, int c, GameEntity entity) {
+        if (entity == null || !isInside(r, c)) return false;
+        Position current = entity.getPosition();
+        return addEntity(current != null && current.getRow() == r && current.getCol() == c
+                ? current : new Position(r, c), entity);
+    }
+
      /**
      * Removes a GameEntity from its position.
      */
     public boolean removeEntity(GameEntity entity) {
         if (entity == null || entity.getPosition() == null) return false;
         Position pos = entity.getPosition();
-        List <GameEntity> entities = grid.get(pos);
-        if (entities != null && entities.remove(entity)) {
-            if (entities.isEmpty()) {
-                grid.remove(pos);
-            }
-            return true;
+        if (!isInside(pos.getRow(), pos.getCol())) return false;
+        int index = index(pos.getRow(), pos.getCol());
+        if (!grid.remove(index, entity)) return false;
+        if (freeCells != null && !grid.isBlocked(index)) {
+            freeCells.markFree(index);
         }
-        return false;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).entityRemoved(entity, pos.getRow(), pos.getCol());
+        }
+        return true;
+    }
+
+
+    /**
+     * registers a listener that is told about every entity added to or removed from the map
+     */
+    public void addListener(MapListener listener) {
+        if (listener != null && !listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+
+    /**
+     * stops telling the listener about changes to the map
+     */
+    public void removeListener(MapListener listener) {
+        listeners.remove(listener);
     }
 
 
@@ -134,115 +245,618 @@ public class GameMap {
      * gets a list of all the entities on a specific position on them map
      */
     public List <GameEntity> getEntities(Position pos) {
-        return grid.getOrDefault(pos, new ArrayList<>());
+        if (pos == null) return new ArrayList<>();
+        return getEntities(pos.getRow(), pos.getCol());
+    }
+
+
+    /**
+     * gets a list of all the entities on the given coordinates
+     */
+    public List <GameEntity> getEntities(int r, int c) {
+        if (!isInside(r, c)) return new ArrayList<>();
+        return grid.get(index(r, c));
     }
 
 
     /**
-     * checks if the specific position is blocked
+     * gets the entity on the given layer of the coordinates, or null if that layer of the cell is empty
+     */
+    public GameEntity getEntity(int r, int c, Layer layer) {
+        if (!isInside(r, c)) return null;
+        return grid.first(index(r, c), layer);
+    }
+
+
+    /**
+     * gets a list of every entity on the given layer of the map, on a
+     * chunked map only the ones of the chunks that were generated so far
+     */
+    public List<GameEntity> getEntities(Layer layer) {
+        List<GameEntity> entities = new ArrayList<>();
+        grid.forEachEntity(layer, entities::add);
+        return entities;
+    }
+
+
+    /**
+     * checks if the specific position is blocked, positions outside the map are never free
      */
     public boolean isPositionFree(Position pos) {
-        List <GameEntity> entities = grid.get(pos);
-        if (entities == null) return true;
-        return false;
+        if (pos == null) return false;
+        return isPositionFree(pos.getRow(), pos.getCol());
     }
 
 
     /**
-     * Reveals to the player everything from a manhattan distance of 2
+     * Checks if a character can step onto the given coordinates. Only what actually blocks
+     * counts, items that do not block movement leave the cell free. Reads a single bit.
+     */
+    public boolean isPositionFree(int r, int c) {
+        if (!isInside(r, c)) return false;
+        return !grid.isBlocked(index(r, c));
+    }
+
+
+    /**
+     * Picks a free cell uniformly at random, in constant time. Used to spawn players and
+     * anything else that needs a free spot.
+     *
+     * <p>
+     * A chunked map keeps no index of its free cells, so it probes up to
+     * {@link #FREE_CELL_PROBES} random cells instead.
+     *
+     * @throws IllegalStateException if there is no free cell left (or none was found on a chunked map)
+     */
+    public Position randomFreePosition(SplittableRandom rand) {
+        if (freeCells != null) {
+            int cell = freeCells.pick(rand);
+            if (cell < 0) {
+                throw new IllegalStateException("The map is full, there is no free cell left");
+            }
+            return new Position(cell / col, cell % col);
+        }
+        for (int probe = 0; probe < FREE_CELL_PROBES; probe++) {
+            int r = rand.nextInt(row);
+            int c = rand.nextInt(col);
+            if (isPositionFree(r, c)) {
+                return new Position(r, c);
+            }
+        }
+        throw new IllegalStateException("No free cell found after " + FREE_CELL_PROBES + " tries");
+    }
+
+
+    /**
+     * Picks a free cell inside the given region, so whatever is placed there can reach the
+     * rest of the region. Up to {@link #FREE_CELL_PROBES} free cells are drawn, if none of
+     * them is in the region any free cell is returned.
+     *
+     * @throws IllegalStateException if there is no free cell left
+     */
+    public Position randomFreePosition(SplittableRandom rand, int region) {
+        Position pos = randomFreePosition(rand);
+        if (regions == null || region < 0) return pos;
+        for (int probe = 1; probe < FREE_CELL_PROBES && regions.regionOf(pos.getRow(), pos.getCol()) != region; probe++) {
+            pos = randomFreePosition(rand);
+        }
+        return pos;
+    }
+
+
+    /**
+     * getter for the connected regions of the map, null on a chunked map which is too big to label
+     */
+    public RegionLabels getRegions() {
+        return regions;
+    }
+
+
+    /**
+     * returns the amount of free cells, or -1 on a chunked map which does not keep count
+     */
+    public int getFreeCellCount() {
+        return freeCells == null ? -1 : freeCells.size();
+    }
+
+
+    /**
+     * Checks if a character could walk through the given cell, used by path finding.
+     * Only items that block movement count, characters are not counted since they move.
+     * Reads a single bit.
+     */
+    public boolean isWalkable(int r, int c) {
+        if (!isInside(r, c)) return false;
+        return !grid.isStaticBlocked(index(r, c));
+    }
+
+
+    /**
+     * checks if the cell blocks the view of what is behind it, only walls do
+     */
+    boolean isOpaque(int r, int c) {
+        if (!isInside(r, c)) return true;
+        return grid.anyMatch(index(r, c), BLOCKS_SIGHT);
+    }
+
+
+    /**
+     * Registers a player with a fog of war of its own on this map, and reveals what the
+     * player can see from where they stand.
+     * The player who was placed by the constructor is already registered.
+     */
+    public boolean addViewer(PlayerCharacter player) {
+        if (player == null || viewerId(player) >= 0) return false;
+        viewers.add(player);
+        fog.addViewer();
+        grid.addAnchor(player);
+        if (player.getPosition() != null) {
+            revealNearby(player);
+        }
+        return true;
+    }
+
+
+    /**
+     * returns the fog of war id of the player, or -1 if the player is not a viewer of this map
+     */
+    private int viewerId(GameEntity entity) {
+        for (int i = 0; i < viewers.size(); i++) {
+            if (viewers.get(i) == entity) return i;
+        }
+        return -1;
+    }
+
+
+    /**
+     * Reveals to the first player everything they can see from the position
      */
     public boolean revealNearby(Position pos) {
+        if (pos == null || viewers.isEmpty()) return false;
+        revealNearby(0, pos.getRow(), pos.getCol());
+        return true;
+    }
 
-        if (pos == null) return false;
 
-        for (Map.Entry<Position, List<GameEntity>> entry : grid.entrySet()) {
-            if (pos.distanceTo(entry.getKey()) <= 2) {
-                for (GameEntity entity : entry.getValue()) {
-                    entity.setVisible(true);
+    /**
+     * Reveals to the player everything they can see from where they stand
+     */
+    public boolean revealNearby(PlayerCharacter player) {
+        int viewer = viewerId(player);
+        if (viewer < 0 || player.getPosition() == null) return false;
+        revealNearby(viewer, player.getPosition().getRow(), player.getPosition().getCol());
+        return true;
+    }
+
+
+    /**
+     * Replaces what the viewer sees with what is within the vision radius of the coordinates.
+     * With line of sight the walls hide what is behind them, without it the whole diamond is
+     * shown. Either way only the cells around the coordinates are visited, never the whole map.
+     */
+    private void revealNearby(int viewer, int pr, int pc) {
+        fog.hideAll(viewer);
+        if (lineOfSight) {
+            fieldOfView.reveal(fog, viewer, pr, pc, visionRadius);
+            return;
+        }
+        for (int dr = -visionRadius; dr <= visionRadius; dr++) {
+            int span = visionRadius - Math.abs(dr);
+            for (int dc = -span; dc <= span; dc++) {
+                if (isInside(pr + dr, pc + dc)) {
+                    fog.show(viewer, index(pr + dr, pc + dc));
                 }
             }
         }
+    }
+
+
+    /**
+     * Incremental version of {@link #revealNearby(Position)} for the first player after a single step.
+     */
+    public boolean revealStep(Position from, Position to) {
+        if (from == null || to == null || viewers.isEmpty()) return false;
+        revealStep(0, from.getRow(), from.getCol(), to.getRow(), to.getCol());
         return true;
     }
 
 
+    /**
+     * Incremental reveal after a single step.
+     *
+     * <p>
+     * Everything inside both diamonds stays as it is, so only the edge of the new
+     * diamond that faces the direction of the step is shown and the opposite edge of
+     * the old diamond is hidden. With line of sight, or on any move that is not a
+     * single step, it falls back to a full reveal.
+     */
+    private void revealStep(int viewer, int fromRow, int fromCol, int toRow, int toCol) {
+        int dr = toRow - fromRow;
+        int dc = toCol - fromCol;
+        if (lineOfSight || Math.abs(dr) + Math.abs(dc) != 1) {
+            revealNearby(viewer, toRow, toCol);
+            return;
+        }
+
+        // the cells at exactly the radius whose offset points along the step enter the view,
+        // and the mirrored cells around the old position leave it
+        for (int a = -visionRadius; a <= visionRadius; a++) {
+            int b = visionRadius - Math.abs(a);
+            for (int side = 1; side >= -1; side -= 2) {
+                if (side == -1 && b == 0) break;
+                int offCol = side * b;
+                if (a * dr + offCol * dc >= 0) {
+                    if (isInside(fromRow - a, fromCol - offCol)) {
+                        fog.hide(viewer, index(fromRow - a, fromCol - offCol));
+                    }
+                    if (isInside(toRow + a, toCol + offCol)) {
+                        fog.show(viewer, index(toRow + a, toCol + offCol));
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * checks if the player sees the position right now
+     */
+    public boolean isVisible(PlayerCharacter player, Position pos) {
+        if (pos == null) return false;
+        return isVisible(player, pos.getRow(), pos.getCol());
+    }
+
+
+    /**
+     * checks if the player sees the given coordinates right now
+     */
+    public boolean isVisible(PlayerCharacter player, int r, int c) {
+        int viewer = viewerId(player);
+        if (viewer < 0 || !isInside(r, c)) return false;
+        return fog.isVisible(viewer, index(r, c));
+    }
+
+
+    /**
+     * checks if the player has ever seen the position
+     */
+    public boolean isExplored(PlayerCharacter player, Position pos) {
+        if (pos == null) return false;
+        return isExplored(player, pos.getRow(), pos.getCol());
+    }
+
+
+    /**
+     * checks if the player has ever seen the given coordinates
+     */
+    public boolean isExplored(PlayerCharacter player, int r, int c) {
+        int viewer = viewerId(player);
+        if (viewer < 0 || !isInside(r, c)) return false;
+        return fog.isExplored(viewer, index(r, c));
+    }
+
+
+    /**
+     * gets a list of the entities on the given layer of the cells the player sees right now
+     */
+    public List<GameEntity> getVisibleEntities(PlayerCharacter player, Layer layer) {
+        List<GameEntity> entities = new ArrayList<>();
+        int viewer = viewerId(player);
+        if (viewer < 0) return entities;
+        fog.forEachVisible(viewer, index -> {
+            GameEntity entity = grid.first(index, layer);
+            if (entity != null) {
+                entities.add(entity);
+            }
+        });
+        return entities;
+    }
+
+
+    /**
+     * gets a list of all the entities on the cells the player sees right now
+     */
+    public List<GameEntity> getVisibleEntities(PlayerCharacter player) {
+        List<GameEntity> entities = new ArrayList<>();
+        int viewer = viewerId(player);
+        if (viewer < 0) return entities;
+        fog.forEachVisible(viewer, index -> {
+            if (!grid.isEmpty(index)) {
+                entities.addAll(grid.get(index));
+            }
+        });
+        return entities;
+    }
+
+
     /**
      * Moves a character to a position if possible
      */
     public boolean moveEntity(GameEntity entity, String direction){
-        if (entity == null || direction == null || entity.getPosition()== null){
+        return moveEntity(entity, Direction.parse(direction));
+    }
+
+    /**
+     * Moves a player one step in the direction if the cell there is free.
+     * Enemies are moved for a whole tick at once with {@link #applyMoves}.
+     */
+    public boolean moveEntity(GameEntity entity, Direction direction) {
+        if (entity == null || direction == null || entity.getPosition() == null) {
             return false;
         }
-        if (!(entity instanceof PlayerCharacter)){
+        if (!(entity instanceof PlayerCharacter)) {
             return false;
         }
         Position current = entity.getPosition();
-        Position next = switch (direction.toLowerCase()) {
-            case "up" -> new Position(current.getRow() - 1, current.getCol());
-            case "down" -> new Position(current.getRow() + 1, current.getCol());
-            case "left" -> new Position(current.getRow(), current.getCol() - 1);
-            case "right" -> new Position(current.getRow(), current.getCol() + 1);
-            default -> null;
-        };
+        int nextRow = current.getRow() + direction.getRowStep();
+        int nextCol = current.getCol() + direction.getColStep();
+        if (!isPositionFree(nextRow, nextCol)) return false;
 
-        if (next == null || !isPositionFree(next)) return false;
+        step(entity, current.getRow(), current.getCol(), nextRow, nextCol);
+        return true;
+    }
 
-        removeEntity(entity);
+    /**
+     * Applies the moves of a whole tick in three phases.
+     *
+     * <ol>
+     *     <li>Every move is checked against the map as it is before the tick: there must be
+     *     an actor on its cell, and the cell it steps to must be free. The checks only read
+     *     the map, so big batches are checked in parallel (except on chunked maps, which
+     *     load chunks as they are read).</li>
+     *     <li>When several moves step into the same cell, the one that comes first in the
+     *     batch wins and the others stay where they are. Since the cells are checked before
+     *     anyone moves, an actor can never step into a cell another one is leaving in the
+     *     same tick, so the result does not depend on the order the moves are made in.</li>
+     *     <li>The winning moves are made in one pass.</li>
+     * </ol>
+     *
+     * @return the amount of moves that were made, see {@link MoveBatch#isApplied}
+     */
+    public int applyMoves(MoveBatch batch) {
+        int size = batch.size();
+        IntConsumer check = move -> batch.targets[move] = checkMove(batch, move);
+        if (size >= PARALLEL_MOVES && mode != StorageMode.CHUNKED) {
+            IntStream.range(0, size).parallel().forEach(check);
+        } else {
+            for (int move = 0; move < size; move++) {
+                check.accept(move);
+            }
+        }
+
+        // sort the claims by target cell and then by move, the first claim on every cell wins
+        int claimCount = 0;
+        for (int move = 0; move < size; move++) {
+            batch.setApplied(move, false);
+            if (batch.targets[move] >= 0) {
+                batch.claims[claimCount++] = ((long) batch.targets[move] << 32) | move;
+            }
+        }
+        if (claimCount >= PARALLEL_MOVES) {
+            Arrays.parallelSort(batch.claims, 0, claimCount);
+        } else {
+            Arrays.sort(batch.claims, 0, claimCount);
+        }
+        long lastTarget = -1;
+        for (int i = 0; i < claimCount; i++) {
+            long target = batch.claims[i] >>> 32;
+            if (target != lastTarget) {
+                batch.setApplied((int) batch.claims[i], true);
+                lastTarget = target;
+            }
+        }
 
-        return addEntity(next, entity);
+        int moved = 0;
+        for (int move = 0; move < size; move++) {
+            if (!batch.isApplied(move)) continue;
+            int fromRow = batch.fromRow(move);
+            int fromCol = batch.fromCol(move);
+            GameEntity actor = grid.first(index(fromRow, fromCol), Layer.ACTOR);
+            if (actor == null) {
+                // the actor was listed twice and already made an earlier move
+                batch.setApplied(move, false);
+                continue;
+            }
+            int target = batch.targets[move];
+            step(actor, fromRow, fromCol, target / col, target % col);
+            moved++;
+        }
+        return moved;
+    }
+
+    /**
+     * returns the cell the move steps into, or -1 if it cannot be made on the map as it is
+     */
+    private int checkMove(MoveBatch batch, int move) {
+        int r = batch.fromRow(move);
+        int c = batch.fromCol(move);
+        if (!isInside(r, c) || grid.first(index(r, c), Layer.ACTOR) == null) return -1;
+        Direction direction = batch.direction(move);
+        int nextRow = r + direction.getRowStep();
+        int nextCol = c + direction.getColStep();
+        if (!isPositionFree(nextRow, nextCol)) return -1;
+        return index(nextRow, nextCol);
+    }
+
+    /**
+     * moves the entity to the next cell and updates what it sees if it is a viewer,
+     * the new position object is the only allocation of a move
+     */
+    private void step(GameEntity entity, int fromRow, int fromCol, int toRow, int toCol) {
+        removeEntity(entity);
+        addEntity(new Position(toRow, toCol), entity);
+        int viewer = viewerId(entity);
+        if (viewer >= 0) {
+            revealStep(viewer, fromRow, fromCol, toRow, toCol);
+        }
     }
 
     /**
-     * represents the map as a string
+     * represents the map as a short summary string
      */
     public String toString() {
+        // a summary only, listing every entity of a big map would print millions of lines
         return "GameMap{" +
-                "grid=" + grid +
+                "rows=" + row +
+                ", cols=" + col +
+                ", mode=" + mode +
+                ", freeCells=" + getFreeCellCount() +
+                ", regions=" + (regions == null ? -1 : regions.getRegionCount()) +
+                ", viewers=" + viewers.size() +
                 '}';
     }
 
 
 
 
-    // Optional helper to safely check if an entity is visible
-    private boolean isEntityVisible(GameEntity entity) {
-        try {
-            java.lang.reflect.Method method = entity.getClass().getMethod("getVisible");
-            return (boolean) method.invoke(entity);
-        } catch (Exception e) {
-            return false;
+    /**
+     * prints the map as the first player sees it
+     */
+    public void displayMap() {
+        if (!viewers.isEmpty()) {
+            displayMap(viewers.get(0));
         }
     }
 
-    public void displayMap() {
-        for (int r = 0; r < row; r++) {
-            for (int c = 0; c < col; c++) {
-                Position pos = new Position(r, c);
-                List<GameEntity> entities = grid.get(pos);
-
-                if (entities != null) {
-                    boolean foundVisible = false;
-                    for (GameEntity entity : entities) {
-                        if (entity != null && isEntityVisible(entity)) {
-                            System.out.print(entity.getDisplaySymbol() + " ");
-                            foundVisible = true;
-                            break; // show only one symbol per cell
-                        }
-                    }
-                    if (!foundVisible) {
-                        System.out.print(". ");
-                    }
-                } else {
-                    System.out.print(". ");
-                }
-            }
-            System.out.println();
+
+    /**
+     * prints the map as the player sees it through the renderer of the map
+     */
+    public void displayMap(PlayerCharacter player) {
+        if (viewerId(player) < 0) return;
+        renderer.render(this, player);
+    }
+
+
+    /**
+     * returns the fog of war id of the player on this map, or -1 if the player is not a viewer
+     */
+    public int getViewerId(PlayerCharacter player) {
+        return viewerId(player);
+    }
+
+
+    /**
+     * Returns the symbol the viewer sees on a cell, the one of the entity on the highest
+     * {@link Layer}. Cells the viewer never explored, empty cells and cells outside the map are
+     * shown as {@code '.'}.
+     */
+    public char symbolAt(int viewer, int r, int c) {
+        if (!isInside(r, c)) return '.';
+        int index = index(r, c);
+        if (!fog.isExplored(viewer, index)) return '.';
+        GameEntity entity = grid.first(index);
+        return entity == null ? '.' : entity.getDisplaySymbol().charAt(0);
+    }
+
+
+    /**
+     * Checks if the viewer has explored any cell of the {@link #EXPLORED_AREA} sized square
+     * area that contains the coordinates. Used to draw an overview of big maps cheaply.
+     */
+    public boolean isAreaExplored(int viewer, int r, int c) {
+        if (!isInside(r, c)) return false;
+        return fog.isBlockExplored(viewer, r / EXPLORED_AREA, c / EXPLORED_AREA);
+    }
+
+
+    /**
+     * getter for the renderer used by displayMap
+     */
+    public MapRenderer getRenderer() {
+        return renderer;
+    }
+
+
+    /**
+     * setter for the renderer used by displayMap
+     */
+    public void setRenderer(MapRenderer renderer) {
+        if (renderer == null) {
+            throw new IllegalArgumentException("Renderer must not be null");
         }
+        this.renderer = renderer;
     }
 
 
+    /**
+     * gets a list of every entity on the map, on a chunked map
+     * only the ones of the chunks that were generated so far
+     */
     public List<GameEntity> getAllEntities() {
-        return grid.values().stream().flatMap(List::stream).collect(Collectors.toList());
+        List<GameEntity> entities = new ArrayList<>();
+        grid.forEachEntity(entities::add);
+        return entities;
+    }
+
+    /**
+     * getter for the manhattan distance the players can see
+     */
+    public int getVisionRadius() {
+        return visionRadius;
+    }
+
+    /**
+     * setter for the manhattan distance the players can see, applied to every viewer right away
+     */
+    public void setVisionRadius(int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("Vision radius must not be negative");
+        }
+        visionRadius = radius;
+        refreshViewers();
+    }
+
+    /**
+     * checks if walls block the view of the players
+     */
+    public boolean hasLineOfSight() {
+        return lineOfSight;
+    }
+
+    /**
+     * setter for whether walls block the view of the players, applied to every viewer right away
+     */
+    public void setLineOfSight(boolean lineOfSight) {
+        this.lineOfSight = lineOfSight;
+        refreshViewers();
+    }
+
+    private void refreshViewers() {
+        for (int viewer = 0; viewer < viewers.size(); viewer++) {
+            Position pos = viewers.get(viewer).getPosition();
+            if (pos != null) {
+                revealNearby(viewer, pos.getRow(), pos.getCol());
+            }
+        }
+    }
+
+    /**
+     * getter for the storage mode of the map
+     */
+    public StorageMode getStorageMode() {
+        return mode;
+    }
+
+    /**
+     * getter for the storage of the cells, used to save the map
+     */
+    GridStorage getGrid() {
+        return grid;
+    }
+
+    /**
+     * getter for the amount of rows in the map
+     */
+    public int getRows() {
+        return row;
+    }
+
+    /**
+     * getter for the amount of columns in the map
+     */
+    public int getCols() {
+        return col;
     }
 
 }
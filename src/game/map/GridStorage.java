@@ -0,0 +1,81 @@
+package game.map;
+import game.core.GameEntity;
+import game.core.Layer;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The storage behind a {@link GameMap}.
+ *
+ * <p>
+ * Cells are addressed by a single index, {@code row * cols + col}, so the map
+ * never has to allocate a {@link Position} just to look at a cell.
+ */
+interface GridStorage {
+
+    /**
+     * adds an entity to the cell at the given index
+     */
+    void add(int index, GameEntity entity);
+
+    /**
+     * removes an entity from the cell at the given index
+     * @return true if the entity was on that cell
+     */
+    boolean remove(int index, GameEntity entity);
+
+    /**
+     * returns a new list with all the entities on the cell
+     */
+    List<GameEntity> get(int index);
+
+    /**
+     * returns the entity drawn on the cell, the one on the highest {@link Layer},
+     * or null if the cell is empty
+     */
+    GameEntity first(int index);
+
+    /**
+     * returns the first entity on the given layer of the cell, or null if that layer is empty
+     */
+    GameEntity first(int index, Layer layer);
+
+    /**
+     * checks if there is nothing on the cell
+     */
+    boolean isEmpty(int index);
+
+    /**
+     * checks if nothing else can step onto the cell, see {@link BlockingBits}
+     */
+    boolean isBlocked(int index);
+
+    /**
+     * checks if an item that blocks movement is on the cell, see {@link BlockingBits}
+     */
+    boolean isStaticBlocked(int index);
+
+    /**
+     * checks if any entity on the cell passes the test, without building a list
+     */
+    boolean anyMatch(int index, Predicate<GameEntity> test);
+
+    /**
+     * runs the action on every entity stored on the map, on a chunked storage only the
+     * chunks that were generated so far are covered
+     */
+    void forEachEntity(Consumer<GameEntity> action);
+
+    /**
+     * runs the action on every entity stored on the given layer of the map, on a chunked
+     * storage only the chunks that were generated so far are covered
+     */
+    void forEachEntity(Layer layer, Consumer<GameEntity> action);
+
+    /**
+     * marks an entity whose surroundings must stay loaded, only chunked storage uses it
+     */
+    default void addAnchor(GameEntity entity) {
+    }
+}
@@ -0,0 +1,132 @@
+package game.map;
+import game.core.GameEntity;
+import game.core.Layer;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The original map layout, a {@link HashMap} from {@link Position} to the list of
+ * entities on that cell.
+ *
+ * <p>
+ * Kept so maps can still be built the old way and compared against the array layout.
+ */
+class HashGridStorage implements GridStorage {
+
+    private final Map<Position, List<GameEntity>> grid;
+    private final int cols;
+    private final BlockingBits blocking;
+
+    /**
+     * constructs an empty hash storage for a map with the given amount of cells and columns
+     */
+    HashGridStorage(int cells, int cols) {
+        this.cols = cols;
+        this.grid = new HashMap<>();
+        this.blocking = new BlockingBits(cells);
+    }
+
+    private Position toPosition(int index) {
+        return new Position(index / cols, index % cols);
+    }
+
+    @Override
+    public void add(int index, GameEntity entity) {
+        grid.computeIfAbsent(toPosition(index), p -> new ArrayList<>()).add(entity);
+        blocking.added(index, entity);
+    }
+
+    @Override
+    public boolean remove(int index, GameEntity entity) {
+        Position pos = toPosition(index);
+        List<GameEntity> entities = grid.get(pos);
+        if (entities != null && entities.remove(entity)) {
+            if (entities.isEmpty()) {
+                grid.remove(pos);
+            }
+            blocking.removed(index, this);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<GameEntity> get(int index) {
+        List<GameEntity> entities = grid.get(toPosition(index));
+        return entities == null ? new ArrayList<>() : new ArrayList<>(entities);
+    }
+
+    @Override
+    public GameEntity first(int index) {
+        List<GameEntity> entities = grid.get(toPosition(index));
+        if (entities == null) return null;
+        for (Layer layer : Layer.topDown()) {
+            for (GameEntity entity : entities) {
+                if (entity.getLayer() == layer) {
+                    return entity;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public GameEntity first(int index, Layer layer) {
+        List<GameEntity> entities = grid.get(toPosition(index));
+        if (entities == null) return null;
+        for (GameEntity entity : entities) {
+            if (entity.getLayer() == layer) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty(int index) {
+        return !grid.containsKey(toPosition(index));
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        return blocking.isBlocked(index);
+    }
+
+    @Override
+    public boolean isStaticBlocked(int index) {
+        return blocking.isStaticBlocked(index);
+    }
+
+    @Override
+    public boolean anyMatch(int index, Predicate<GameEntity> test) {
+        List<GameEntity> entities = grid.get(toPosition(index));
+        if (entities == null) {
+            return false;
+        }
+        for (GameEntity entity : entities) {
+            if (test.test(entity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachEntity(Consumer<GameEntity> action) {
+        for (List<GameEntity> entities : grid.values()) {
+            entities.forEach(action);
+        }
+    }
+
+    @Override
+    public void forEachEntity(Layer layer, Consumer<GameEntity> action) {
+        for (List<GameEntity> entities : grid.values()) {
+            for (GameEntity entity : entities) {
+                if (entity.getLayer() == layer) {
+                    action.accept(entity);
+                }
+            }
+        }
+    }
+}
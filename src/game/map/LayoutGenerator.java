@@ -0,0 +1,62 @@
+package game.map;
+import game.characters.EnemyStore;
+import game.core.GameEntity;
+import game.items.Wall;
+import java.util.SplittableRandom;
+
+/**
+ * A generator that first lays out walls and floor, and then scatters enemies and
+ * potions over the floor.
+ *
+ * <p>
+ * Subclasses only decide the layout, every wall cell becomes a {@link Wall} and every
+ * floor cell gets an enemy or a potion with the chances given to the constructor.
+ */
+public abstract class LayoutGenerator implements DungeonGenerator {
+
+    private final double enemyChance;
+    private final double potionChance;
+
+    /**
+     * constructs a layout generator with the chance of an enemy and of a potion on a floor cell
+     */
+    protected LayoutGenerator(double enemyChance, double potionChance) {
+        if (enemyChance < 0 || potionChance < 0 || enemyChance + potionChance > 1) {
+            throw new IllegalArgumentException("Chances must be between 0 and 1");
+        }
+        this.enemyChance = enemyChance;
+        this.potionChance = potionChance;
+    }
+
+    @Override
+    public final GameEntity[] generateChunk(long seed, int top, int left, int height, int width) {
+        SplittableRandom rand = new SplittableRandom(MapGenerator.seedFor(seed, Position.pack(top, left)));
+        boolean[] walls = layout(seed, top, left, height, width, rand);
+
+        GameEntity[] cells = new GameEntity[height * width];
+        EnemyStore enemies = new EnemyStore(rand.split()); // lives as long as the chunk
+        for (int i = 0; i < cells.length; i++) {
+            int r = top + i / width;
+            int c = left + i % width;
+            if (walls[i]) {
+                cells[i] = new Wall(new Position(r, c));
+                continue;
+            }
+            double roll = rand.nextDouble();
+            if (roll < enemyChance) {
+                cells[i] = MapGenerator.rollEnemy(enemies, rand);
+            } else if (roll < enemyChance + potionChance) {
+                cells[i] = MapGenerator.rollPotion(new Position(r, c), rand);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Lays out the walls of a chunk.
+     *
+     * @param rand a generator seeded for this chunk only
+     * @return an array of {@code height * width} cells, true where there is a wall
+     */
+    protected abstract boolean[] layout(long seed, int top, int left, int height, int width, SplittableRandom rand);
+}
@@ -0,0 +1,385 @@
+package game.map;
+import game.characters.Dragon;
+import game.characters.EnemyStore;
+import game.characters.Goblin;
+import game.characters.Orc;
+import game.characters.PlayerCharacter;
+import game.combat.MagicElement;
+import game.core.GameEntity;
+import game.core.Layer;
+import game.items.Potion;
+import game.items.PowerPotion;
+import game.items.Treasure;
+import game.items.Wall;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * A saved map in a compact binary format, read through memory mapping.
+ *
+ * <p>
+ * The file has three sections:
+ * <ul>
+ *     <li>a header of {@link #HEADER_BYTES} bytes: the magic number, the version, the rows,
+ *     the columns and the amount of entity records</li>
+ *     <li>one {@link #CELL_BYTES} byte record per cell, in {@code row * cols + col} order:
+ *     0 for an empty cell, 1 for a wall, or 2 plus the number of the entity record of the cell</li>
+ *     <li>the entity records, {@link #ENTITY_BYTES} bytes each, holding the kind and the stats
+ *     of every enemy and item that is not a wall</li>
+ * </ul>
+ * Walls make up most of a map and carry no state, so they never take an entity record.
+ *
+ * <p>
+ * Opening a file only reads the header and maps the rest, nothing is parsed up front. The
+ * file is a {@link DungeonGenerator}, so a map is loaded by handing it to a {@link GameMap}
+ * like any generator, and only the chunks that are accessed are ever turned into objects.
+ * With the {@link StorageMode#CHUNKED} storage even a map with hundreds of millions of cells
+ * opens in the time it takes to map the file.
+ *
+ * <p>
+ * Players are not part of the map, they are placed again when the map is loaded. A cell
+ * can hold at most one other entity, which is all the game ever puts on a cell.
+ */
+public class MapFile implements DungeonGenerator {
+
+    /**
+     * the first four bytes of every map file, "DNDM"
+     */
+    public static final int MAGIC = 0x444E444D;
+
+    /**
+     * the version of the format written by {@link #write}
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * the length of the header in bytes
+     */
+    public static final int HEADER_BYTES = 24;
+
+    /**
+     * the length of a cell record in bytes
+     */
+    public static final int CELL_BYTES = 4;
+
+    /**
+     * the length of an entity record in bytes
+     */
+    public static final int ENTITY_BYTES = 24;
+
+    // a single mapping can not be larger than 2GB, big files are mapped in segments
+    private static final int CELLS_PER_SEGMENT = 1 << 28;
+    private static final int ENTITIES_PER_SEGMENT = 1 << 25;
+
+    private static final int EMPTY = 0;
+    private static final int WALL = 1;
+    private static final int FIRST_ENTITY = 2;
+
+    private static final byte GOBLIN = 1;
+    private static final byte ORC = 2;
+    private static final byte DRAGON = 3;
+    private static final byte POTION = 4;
+    private static final byte POWER_POTION = 5;
+    private static final byte TREASURE = 6;
+
+    private static final MagicElement[] ELEMENTS = MagicElement.values();
+
+    private final int rows;
+    private final int cols;
+    private final int entityCount;
+    private final MappedByteBuffer[] cells;
+    private final MappedByteBuffer[] entities;
+
+    private MapFile(int rows, int cols, int entityCount, MappedByteBuffer[] cells, MappedByteBuffer[] entities) {
+        this.rows = rows;
+        this.cols = cols;
+        this.entityCount = entityCount;
+        this.cells = cells;
+        this.entities = entities;
+    }
+
+    /**
+     * Opens a map file. Only the header is read, the cells and entities are mapped and
+     * read when their chunk is generated.
+     *
+     * @throws IOException if the file can not be read or is not a map file
+     */
+    public static MapFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Not a map file, the header is cut short: " + path);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a map file: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported map file version " + version + ": " + path);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int entityCount = header.getInt();
+            long cellCount = (long) rows * cols;
+            if (rows < 1 || cols < 1 || cellCount > Integer.MAX_VALUE || entityCount < 0) {
+                throw new IOException("Corrupt map file header: " + path);
+            }
+            long entitiesStart = HEADER_BYTES + cellCount * CELL_BYTES;
+            if (channel.size() < entitiesStart + (long) entityCount * ENTITY_BYTES) {
+                throw new IOException("Map file is cut short: " + path);
+            }
+            // the mappings stay valid after the channel is closed
+            return new MapFile(rows, cols, entityCount,
+                    map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES, cellCount, CELL_BYTES, CELLS_PER_SEGMENT),
+                    map(channel, FileChannel.MapMode.READ_ONLY, entitiesStart, entityCount, ENTITY_BYTES, ENTITIES_PER_SEGMENT));
+        }
+    }
+
+    /**
+     * Saves every cell of the map to the file, replacing it if it exists. A chunked map is
+     * written chunk by chunk, so it never has to fit in memory.
+     *
+     * @throws IllegalArgumentException if a cell holds more than one entity besides players,
+     *                                  or an entity the format does not know
+     * @throws IOException              if the file can not be written
+     */
+    public static void write(GameMap map, Path path) throws IOException {
+        int rows = map.getRows();
+        int cols = map.getCols();
+        GridStorage grid = map.getGrid();
+        long cellCount = (long) rows * cols;
+        long entitiesStart = HEADER_BYTES + cellCount * CELL_BYTES;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer[] cellSegments = map(channel, FileChannel.MapMode.READ_WRITE,
+                    HEADER_BYTES, cellCount, CELL_BYTES, CELLS_PER_SEGMENT);
+            ByteBuffer records = ByteBuffer.allocate(ENTITY_BYTES * 2048);
+            long recordsWritten = 0;
+            int entityCount = 0;
+
+            // chunk by chunk, so a chunked map only keeps a few chunks in memory while it is written
+            for (int top = 0; top < rows; top += MapGenerator.CHUNK_SIZE) {
+                for (int left = 0; left < cols; left += MapGenerator.CHUNK_SIZE) {
+                    int bottom = Math.min(top + MapGenerator.CHUNK_SIZE, rows);
+                    int right = Math.min(left + MapGenerator.CHUNK_SIZE, cols);
+                    for (int r = top; r < bottom; r++) {
+                        for (int c = left; c < right; c++) {
+                            int index = r * cols + c;
+                            GameEntity entity = single(grid, index, r, c);
+                            int ref;
+                            if (entity == null) {
+                                ref = EMPTY;
+                            } else if (entity instanceof Wall) {
+                                ref = WALL;
+                            } else {
+                                ref = FIRST_ENTITY + entityCount++;
+                                if (!records.hasRemaining()) {
+                                    recordsWritten += flush(channel, records, entitiesStart + recordsWritten * ENTITY_BYTES);
+                                }
+                                encode(entity, records);
+                            }
+                            cellSegments[index / CELLS_PER_SEGMENT].putInt(index % CELLS_PER_SEGMENT * CELL_BYTES, ref);
+                        }
+                    }
+                }
+            }
+            flush(channel, records, entitiesStart + recordsWritten * ENTITY_BYTES);
+            for (MappedByteBuffer segment : cellSegments) {
+                segment.force();
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(entityCount).putInt(0);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    /**
+     * Loads the map into a new {@link GameMap} and places the player on it.
+     */
+    public GameMap load(PlayerCharacter player, StorageMode mode) {
+        return load(player, mode, 0L);
+    }
+
+    /**
+     * Loads the map into a new {@link GameMap} and places the player on it. The seed places
+     * the player and seeds the dice of the loaded enemies, so the same seed plays the same way.
+     */
+    public GameMap load(PlayerCharacter player, StorageMode mode, long seed) {
+        return new GameMap(rows, cols, player, mode, seed, this);
+    }
+
+    /**
+     * getter for the rows of the saved map
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * getter for the columns of the saved map
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * getter for the amount of entity records in the file
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * Reads the cells of the chunk from the file, the seed only seeds the dice of the enemies
+     * of the chunk. Only absolute reads are used, so chunks can be read by several threads at
+     * the same time.
+     */
+    @Override
+    public GameEntity[] generateChunk(long seed, int top, int left, int height, int width) {
+        GameEntity[] chunk = new GameEntity[height * width];
+        // lives as long as the chunk
+        EnemyStore enemies = new EnemyStore(new SplittableRandom(MapGenerator.seedFor(seed, (long) top * cols + left)));
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                int index = (top + r) * cols + left + c;
+                int ref = cells[index / CELLS_PER_SEGMENT].getInt(index % CELLS_PER_SEGMENT * CELL_BYTES);
+                if (ref == WALL) {
+                    chunk[r * width + c] = new Wall(null);
+                } else if (ref >= FIRST_ENTITY) {
+                    chunk[r * width + c] = decode(ref - FIRST_ENTITY, enemies);
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * returns the one entity of the cell that is saved, or null if there is none
+     */
+    private static GameEntity single(GridStorage grid, int index, int r, int c) {
+        GameEntity found = null;
+        for (Layer layer : Layer.values()) {
+            GameEntity entity = grid.first(index, layer);
+            if (entity == null || entity instanceof PlayerCharacter) continue;
+            if (found != null) {
+                throw new IllegalArgumentException("Cell " + r + "," + c + " holds more than one entity");
+            }
+            found = entity;
+        }
+        return found;
+    }
+
+    /**
+     * writes the record of the entity at the position of the buffer
+     */
+    private static void encode(GameEntity entity, ByteBuffer out) {
+        // kind, flag, small, three ints and a double, unused fields stay 0
+        byte kind;
+        int small = 0;
+        int flag = 0;
+        int first = 0;
+        int second = 0;
+        int third = 0;
+        double extra = 0;
+        if (entity instanceof PowerPotion potion) {
+            kind = POWER_POTION;
+            flag = potion.getPotionCondition() ? 1 : 0;
+            first = potion.getIncreaseAmount();
+        } else if (entity instanceof Potion potion) {
+            kind = POTION;
+            flag = potion.getPotionCondition() ? 1 : 0;
+            first = potion.getIncreaseAmount();
+        } else if (entity instanceof Treasure treasure) {
+            kind = TREASURE;
+            first = treasure.getValue();
+        } else if (entity instanceof Goblin goblin) {
+            kind = GOBLIN;
+            small = goblin.getAgility();
+            first = goblin.getHealth();
+            second = goblin.getPower();
+            third = goblin.getLoot();
+        } else if (entity instanceof Orc orc) {
+            kind = ORC;
+            first = orc.getHealth();
+            second = orc.getPower();
+            third = orc.getLoot();
+            extra = orc.getResistance();
+        } else if (entity instanceof Dragon dragon) {
+            kind = DRAGON;
+            small = dragon.getElement().ordinal();
+            first = dragon.getHealth();
+            second = dragon.getPower();
+            third = dragon.getLoot();
+        } else {
+            throw new IllegalArgumentException("Can not save " + entity.getClass().getSimpleName());
+        }
+        out.put(kind).put((byte) flag).putShort((short) small)
+                .putInt(first).putInt(second).putInt(third).putDouble(extra);
+    }
+
+    /**
+     * builds the entity of the record with the given number, enemies go into the store,
+     * its position is set by the caller
+     */
+    private GameEntity decode(int record, EnemyStore enemies) {
+        ByteBuffer in = entities[record / ENTITIES_PER_SEGMENT];
+        int at = record % ENTITIES_PER_SEGMENT * ENTITY_BYTES;
+        byte kind = in.get(at);
+        boolean flag = in.get(at + 1) != 0;
+        int small = in.getShort(at + 2);
+        int first = in.getInt(at + 4);
+        int second = in.getInt(at + 8);
+        int third = in.getInt(at + 12);
+        return switch (kind) {
+            case GOBLIN -> new Goblin(enemies, first, second, third, small);
+            case ORC -> new Orc(enemies, first, second, third, in.getDouble(at + 16));
+            case DRAGON -> new Dragon(enemies, first, second, third, ELEMENTS[small]);
+            case POTION -> new Potion(null, first, flag);
+            case POWER_POTION -> new PowerPotion(null, first, flag);
+            case TREASURE -> new Treasure(null, first);
+            default -> throw new IllegalStateException("Unknown entity kind " + kind + " in record " + record);
+        };
+    }
+
+    /**
+     * writes the records in the buffer to the file at the given offset and empties the buffer
+     * @return the amount of records written
+     */
+    private static int flush(FileChannel channel, ByteBuffer records, long offset) throws IOException {
+        records.flip();
+        int count = records.remaining() / ENTITY_BYTES;
+        while (records.hasRemaining()) {
+            offset += channel.write(records, offset);
+        }
+        records.clear();
+        return count;
+    }
+
+    /**
+     * maps the records of a section in segments of at most {@code perSegment} records
+     */
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long start,
+                                          long count, int recordBytes, int perSegment) throws IOException {
+        int segments = (int) ((count + perSegment - 1) / perSegment);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[segments];
+        for (int i = 0; i < segments; i++) {
+            long first = (long) i * perSegment;
+            long length = Math.min(perSegment, count - first) * recordBytes;
+            mapped[i] = channel.map(mode, start + first * recordBytes, length);
+        }
+        return mapped;
+    }
+}
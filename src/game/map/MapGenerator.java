@@ -0,0 +1,161 @@
+package game.map;
+import game.characters.Dragon;
+import game.characters.Enemy;
+import game.characters.EnemyStore;
+import game.characters.Goblin;
+import game.characters.Orc;
+import game.core.GameEntity;
+import game.items.Potion;
+import game.items.PowerPotion;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates the starting content of a whole map from a seed.
+ *
+ * <p>
+ * The map is cut into the same square chunks the chunked storage uses, and the chunks
+ * are handed to a {@link DungeonGenerator} in parallel on a fork-join pool. A chunk only
+ * depends on the seed and its own coordinates, so the result is exactly the same for the
+ * same seed no matter how many threads are used, in which order the chunks finish, or
+ * whether the map is generated up front or chunk by chunk on demand.
+ */
+public class MapGenerator {
+
+    /**
+     * the length of a chunk side in cells, the unit of work given to a thread
+     */
+    public static final int CHUNK_SIZE = ChunkedGridStorage.CHUNK_SIZE;
+
+    private MapGenerator() {
+    }
+
+    /**
+     * Generates the content of every cell of a map.
+     *
+     * @param parallelism the amount of threads to use
+     * @return an array indexed by {@code row * cols + col}, empty cells are null
+     */
+    public static GameEntity[] generate(int rows, int cols, long seed, DungeonGenerator generator, int parallelism) {
+        if (generator == null) {
+            throw new IllegalArgumentException("Generator must not be null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        GameEntity[] cells = new GameEntity[rows * cols];
+        int chunkCols = (cols + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int chunks = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE * chunkCols;
+        ChunkTask task = new ChunkTask(cells, rows, cols, chunkCols, seed, generator, 0, chunks);
+
+        if (parallelism == ForkJoinPool.getCommonPoolParallelism()) {
+            ForkJoinPool.commonPool().invoke(task);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(task);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Derives the seed of a part of the map (a chunk or a single cell) from the map seed.
+     * Neighbouring parts get unrelated seeds.
+     */
+    public static long seedFor(long seed, long part) {
+        long z = seed + (part + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * rolls one of the enemy types, all equally likely, into the store of the chunk
+     */
+    static Enemy rollEnemy(EnemyStore store, SplittableRandom rand) {
+        return switch (rand.nextInt(3)) {
+            case 0 -> new Goblin(store, rand);
+            case 1 -> new Orc(store, rand);
+            default -> new Dragon(store, rand);
+        };
+    }
+
+    /**
+     * rolls a potion, three out of four are healing potions and the rest power potions
+     */
+    static Potion rollPotion(Position position, SplittableRandom rand) {
+        if (rand.nextDouble() < 0.75) {
+            return new Potion(position, rand);
+        }
+        return new PowerPotion(position, rand);
+    }
+
+    /**
+     * Generates a single chunk and gives every entity without a position the position of its cell.
+     * @return the cells of the chunk indexed by {@code localRow * width + localCol}
+     */
+    static GameEntity[] generateChunk(DungeonGenerator generator, long seed, int top, int left, int height, int width) {
+        GameEntity[] cells = generator.generateChunk(seed, top, left, height, width);
+        if (cells.length != height * width) {
+            throw new IllegalStateException("Generator returned " + cells.length + " cells for a "
+                    + height + "x" + width + " chunk");
+        }
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != null && cells[i].getPosition() == null) {
+                cells[i].setPosition(new Position(top + i / width, left + i % width));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * generates a range of chunks, splitting it in half until a single chunk is left
+     */
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final GameEntity[] cells;
+        private final int rows;
+        private final int cols;
+        private final int chunkCols;
+        private final long seed;
+        private final DungeonGenerator generator;
+        private final int fromChunk;
+        private final int toChunk;
+
+        private ChunkTask(GameEntity[] cells, int rows, int cols, int chunkCols, long seed,
+                          DungeonGenerator generator, int fromChunk, int toChunk) {
+            this.cells = cells;
+            this.rows = rows;
+            this.cols = cols;
+            this.chunkCols = chunkCols;
+            this.seed = seed;
+            this.generator = generator;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk > 1) {
+                int mid = (fromChunk + toChunk) >>> 1;
+                invokeAll(new ChunkTask(cells, rows, cols, chunkCols, seed, generator, fromChunk, mid),
+                        new ChunkTask(cells, rows, cols, chunkCols, seed, generator, mid, toChunk));
+                return;
+            }
+
+            int top = fromChunk / chunkCols * CHUNK_SIZE;
+            int left = fromChunk % chunkCols * CHUNK_SIZE;
+            int height = Math.min(CHUNK_SIZE, rows - top);
+            int width = Math.min(CHUNK_SIZE, cols - left);
+            GameEntity[] chunk = generateChunk(generator, seed, top, left, height, width);
+            for (int r = 0; r < height; r++) {
+                System.arraycopy(chunk, r * width, cells, (top + r) * cols + left, width);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package game.map;
+import game.core.GameEntity;
+
+/**
+ * Gets told about every entity that is added to or removed from a {@link GameMap}.
+ *
+ * <p>
+ * A move is reported as a removal from the old cell followed by an addition on the new one.
+ * Listeners are called on the thread that changed the map, after the change was made.
+ */
+public interface MapListener {
+
+    /**
+     * called after an entity was added to the cell at the given coordinates
+     */
+    void entityAdded(GameEntity entity, int r, int c);
+
+    /**
+     * called after an entity was removed from the cell at the given coordinates
+     */
+    void entityRemoved(GameEntity entity, int r, int c);
+}
@@ -0,0 +1,114 @@
+package game.map;
+import game.core.GameEntity;
+import java.util.Arrays;
+
+/**
+ * The moves of every actor for one tick, applied together by {@link GameMap#applyMoves}.
+ *
+ * <p>
+ * A move names its mover by the cell it stands on, the mover is the actor on that cell,
+ * and the direction it wants to step in. The moves are kept in flat arrays that are reused
+ * after {@link #clear()}, so filling a batch every tick allocates nothing once it has grown
+ * to the amount of movers.
+ */
+public class MoveBatch {
+
+    private long[] from;
+    private Direction[] directions;
+    private boolean[] applied;
+    private int size;
+
+    // scratch space for GameMap#applyMoves
+    int[] targets;
+    long[] claims;
+
+    /**
+     * constructs an empty batch
+     */
+    public MoveBatch() {
+        this(64);
+    }
+
+    /**
+     * constructs an empty batch with room for the given amount of moves
+     */
+    public MoveBatch(int capacity) {
+        capacity = Math.max(capacity, 1);
+        from = new long[capacity];
+        directions = new Direction[capacity];
+        applied = new boolean[capacity];
+        targets = new int[capacity];
+        claims = new long[capacity];
+    }
+
+    /**
+     * Adds the move of the actor standing on the given cell.
+     * @return the number of the move in the batch
+     */
+    public int add(int row, int col, Direction direction) {
+        if (direction == null) {
+            throw new IllegalArgumentException("Direction must not be null");
+        }
+        if (size == from.length) {
+            int capacity = size * 2;
+            from = Arrays.copyOf(from, capacity);
+            directions = Arrays.copyOf(directions, capacity);
+            applied = Arrays.copyOf(applied, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            claims = Arrays.copyOf(claims, capacity);
+        }
+        from[size] = Position.pack(row, col);
+        directions[size] = direction;
+        applied[size] = false;
+        return size++;
+    }
+
+    /**
+     * Adds the move of the entity, which must be an actor on the map.
+     * @return the number of the move in the batch
+     */
+    public int add(GameEntity entity, Direction direction) {
+        Position pos = entity.getPosition();
+        return add(pos.getRow(), pos.getCol(), direction);
+    }
+
+    /**
+     * getter for the amount of moves in the batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * checks if the move was made the last time the batch was applied
+     */
+    public boolean isApplied(int move) {
+        if (move < 0 || move >= size) {
+            throw new IndexOutOfBoundsException("No move " + move + " in a batch of " + size);
+        }
+        return applied[move];
+    }
+
+    /**
+     * removes every move, keeping the arrays
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    int fromRow(int move) {
+        return Position.unpackRow(from[move]);
+    }
+
+    int fromCol(int move) {
+        return Position.unpackCol(from[move]);
+    }
+
+    Direction direction(int move) {
+        return directions[move];
+    }
+
+    void setApplied(int move, boolean value) {
+        applied[move] = value;
+    }
+}
@@ -1,5 +1,4 @@
 package game.map;
-import java.util.Objects;
 
 /**
  * Represents a coordinate on the game map using row and column values.
@@ -11,11 +10,17 @@ import java.util.Objects;
  *
  * <p>
  * Distance is calculated using the Manhattan method.
+ *
+ * <p>
+ * Positions never change after they are constructed, so they can be shared freely
+ * without defensive copies. Code on hot paths does not need them at all, it can use
+ * the plain coordinates or the packed {@code long} form from {@link #pack(int, int)},
+ * and this class is only a thin wrapper around those two ints.
  */
 public class Position {
 
-    private int row;
-    private int col;
+    private final int row;
+    private final int col;
 
     /**
      * Construct a new position based on the specified row and col
@@ -35,6 +40,34 @@ public class Position {
         this.col = other.col;
     }
 
+    /**
+     * packs a row and a column into a single long, the row in the high 32 bits
+     */
+    public static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * returns the row of a packed coordinate
+     */
+    public static int unpackRow(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * returns the column of a packed coordinate
+     */
+    public static int unpackCol(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * returns this position as a packed coordinate
+     */
+    public long pack() {
+        return pack(row, col);
+    }
+
     /**
      * getter for the col field
      * @return the column coordinate
@@ -87,7 +120,10 @@ public class Position {
         return "row: " + getRow() + "column: " + getCol();
     }
 
+    /**
+     * hash code from the two coordinates, without boxing them
+     */
     @Override public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * row + col;
     }
 }
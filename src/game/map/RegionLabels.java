@@ -0,0 +1,335 @@
+package game.map;
+import game.core.GameEntity;
+import java.util.Arrays;
+
+/**
+ * Splits the walkable cells of a map into connected regions, so it can be told in near
+ * constant time whether one cell can be reached from another at all.
+ *
+ * <p>
+ * Every walkable cell holds a label, and the labels are the elements of a union-find
+ * structure: two cells are in the same region when their labels have the same root. The
+ * labels are found once with a flood fill over the whole map, and after that they are kept
+ * up to date from the changes to the map:
+ * <ul>
+ *     <li>when a cell opens up, it joins the regions around it with a few unions</li>
+ *     <li>when a cell is blocked, its region may fall apart. A flood fill is started from
+ *     each of its walkable neighbours, and the fills take turns one cell at a time, joining
+ *     up when they meet. As soon as only one of them is still going, every other one has
+ *     walked its whole part, so only the parts that broke off get new labels, and the work
+ *     is bounded by the size of the smaller parts and not of the map</li>
+ * </ul>
+ * Like path finding, only items that block movement count, characters move away.
+ */
+public class RegionLabels implements MapListener {
+
+    private static final int NONE = -1;
+
+    private final GameMap map;
+    private final int rows;
+    private final int cols;
+    private final int[] label;
+    private int[] parent;
+    private int[] size;
+    private int labelCount;
+    private int regionCount;
+
+    // scratch space of the split search, one queue and one list of visited cells per fill
+    private final int[] seen;
+    private int generation;
+    private final int[][] queues = new int[4][64];
+    private final int[] heads = new int[4];
+    private final int[] tails = new int[4];
+    private final int[] group = new int[4];
+
+    /**
+     * labels the regions of the map and starts listening to its changes
+     */
+    public RegionLabels(GameMap map) {
+        if (map == null) {
+            throw new IllegalArgumentException("Map must not be null");
+        }
+        this.map = map;
+        this.rows = map.getRows();
+        this.cols = map.getCols();
+        this.label = new int[rows * cols];
+        this.seen = new int[rows * cols];
+        this.parent = new int[64];
+        this.size = new int[64];
+        Arrays.fill(label, NONE);
+
+        int[] queue = new int[64];
+        for (int cell = 0; cell < label.length; cell++) {
+            if (label[cell] != NONE || !map.isWalkable(cell / cols, cell % cols)) continue;
+            int region = newLabel();
+            label[cell] = region;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = cell;
+            while (head < tail) {
+                int current = queue[head++];
+                size[region]++;
+                for (int side = 0; side < 4; side++) {
+                    int next = neighbour(current, side);
+                    if (next >= 0 && label[next] == NONE && map.isWalkable(next / cols, next % cols)) {
+                        label[next] = region;
+                        if (tail == queue.length) {
+                            queue = Arrays.copyOf(queue, tail * 2);
+                        }
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        map.addListener(this);
+    }
+
+    /**
+     * returns the region of the cell, or -1 if the cell is not walkable
+     */
+    public int regionOf(int r, int c) {
+        if (!map.isInside(r, c)) return NONE;
+        int l = label[r * cols + c];
+        return l == NONE ? NONE : find(l);
+    }
+
+    /**
+     * checks if both cells are walkable and one can be reached from the other
+     */
+    public boolean sameRegion(int r1, int c1, int r2, int c2) {
+        int a = regionOf(r1, c1);
+        return a != NONE && a == regionOf(r2, c2);
+    }
+
+    /**
+     * checks if both positions are walkable and one can be reached from the other
+     */
+    public boolean sameRegion(Position a, Position b) {
+        if (a == null || b == null) return false;
+        return sameRegion(a.getRow(), a.getCol(), b.getRow(), b.getCol());
+    }
+
+    /**
+     * returns the amount of cells in the region
+     */
+    public int regionSize(int region) {
+        if (region < 0 || region >= labelCount) return 0;
+        return size[find(region)];
+    }
+
+    /**
+     * returns the region with the most cells, or -1 if nothing on the map is walkable
+     */
+    public int largestRegion() {
+        int best = NONE;
+        for (int l = 0; l < labelCount; l++) {
+            if (parent[l] == l && size[l] > 0 && (best == NONE || size[l] > size[best])) {
+                best = l;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * getter for the amount of separate regions on the map
+     */
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    /**
+     * stops listening to the map, the labels keep their last state
+     */
+    public void detach() {
+        map.removeListener(this);
+    }
+
+    @Override
+    public void entityAdded(GameEntity entity, int r, int c) {
+        int cell = r * cols + c;
+        if (label[cell] != NONE && !map.isWalkable(r, c)) {
+            block(cell);
+        }
+    }
+
+    @Override
+    public void entityRemoved(GameEntity entity, int r, int c) {
+        int cell = r * cols + c;
+        if (label[cell] == NONE && map.isWalkable(r, c)) {
+            open(cell);
+        }
+    }
+
+    /**
+     * gives the cell that opened up a region of its own and joins it with every region around it
+     */
+    private void open(int cell) {
+        int region = newLabel();
+        label[cell] = region;
+        size[region] = 1;
+        for (int side = 0; side < 4; side++) {
+            int next = neighbour(cell, side);
+            if (next >= 0 && label[next] != NONE) {
+                region = union(region, find(label[next]));
+            }
+        }
+    }
+
+    /**
+     * takes the blocked cell out of its region and gives new labels to the parts that broke off
+     */
+    private void block(int cell) {
+        int region = find(label[cell]);
+        label[cell] = NONE;
+        size[region]--;
+
+        nextGeneration();
+        int fills = 0;
+        for (int side = 0; side < 4; side++) {
+            int next = neighbour(cell, side);
+            if (next >= 0 && label[next] != NONE) {
+                heads[fills] = 0;
+                tails[fills] = 0;
+                group[fills] = fills;
+                push(fills, next);
+                fills++;
+            }
+        }
+        if (fills == 0) {
+            // the cell was a region of its own
+            size[region] = 0;
+            regionCount--;
+            return;
+        }
+        if (fills == 1) return;
+
+        // the fills take turns, a fill that walks into another one joins its group
+        while (activeGroups(fills) > 1) {
+            for (int fill = 0; fill < fills; fill++) {
+                if (heads[fill] == tails[fill]) continue;
+                int current = queues[fill][heads[fill]++];
+                for (int side = 0; side < 4; side++) {
+                    int next = neighbour(current, side);
+                    if (next < 0 || label[next] == NONE) continue;
+                    int owner = ownerOf(next);
+                    if (owner < 0) {
+                        push(fill, next);
+                    } else if (groupOf(owner) != groupOf(fill)) {
+                        group[groupOf(owner)] = groupOf(fill);
+                    }
+                }
+            }
+        }
+
+        // every group that finished walked a whole part that broke off, the one still going keeps the old label
+        int keep = NONE;
+        for (int fill = 0; fill < fills; fill++) {
+            if (heads[fill] != tails[fill]) {
+                keep = groupOf(fill);
+            }
+        }
+        if (keep == NONE) {
+            keep = groupOf(0);
+        }
+        for (int g = 0; g < fills; g++) {
+            if (groupOf(g) != g || g == keep) continue;
+            int part = newLabel();
+            for (int fill = 0; fill < fills; fill++) {
+                if (groupOf(fill) != g) continue;
+                for (int i = 0; i < tails[fill]; i++) {
+                    label[queues[fill][i]] = part;
+                }
+                size[part] += tails[fill];
+                size[region] -= tails[fill];
+            }
+        }
+    }
+
+    private int activeGroups(int fills) {
+        int active = 0;
+        int counted = 0; // bit set of the groups already counted
+        for (int fill = 0; fill < fills; fill++) {
+            int g = groupOf(fill);
+            if (heads[fill] != tails[fill] && (counted & (1 << g)) == 0) {
+                counted |= 1 << g;
+                active++;
+            }
+        }
+        return active;
+    }
+
+    private int groupOf(int fill) {
+        while (group[fill] != fill) {
+            fill = group[fill];
+        }
+        return fill;
+    }
+
+    /**
+     * returns the fill that reached the cell in this search, or -1 if none did yet
+     */
+    private int ownerOf(int cell) {
+        int stamp = seen[cell] - generation * 4 - 1;
+        return stamp >= 0 && stamp < 4 ? stamp : -1;
+    }
+
+    private void push(int fill, int cell) {
+        if (tails[fill] == queues[fill].length) {
+            queues[fill] = Arrays.copyOf(queues[fill], tails[fill] * 2);
+        }
+        queues[fill][tails[fill]++] = cell;
+        seen[cell] = generation * 4 + 1 + fill;
+    }
+
+    private void nextGeneration() {
+        if (generation >= Integer.MAX_VALUE / 4 - 2) {
+            Arrays.fill(seen, 0);
+            generation = 0;
+        }
+        generation++;
+    }
+
+    /**
+     * returns the neighbour of the cell on the given side (up, down, left, right), or -1 outside the map
+     */
+    private int neighbour(int cell, int side) {
+        return switch (side) {
+            case 0 -> cell >= cols ? cell - cols : -1;
+            case 1 -> cell + cols < rows * cols ? cell + cols : -1;
+            case 2 -> cell % cols > 0 ? cell - 1 : -1;
+            default -> cell % cols < cols - 1 ? cell + 1 : -1;
+        };
+    }
+
+    private int newLabel() {
+        if (labelCount == parent.length) {
+            parent = Arrays.copyOf(parent, labelCount * 2);
+            size = Arrays.copyOf(size, labelCount * 2);
+        }
+        parent[labelCount] = labelCount;
+        size[labelCount] = 0;
+        regionCount++;
+        return labelCount++;
+    }
+
+    private int find(int l) {
+        while (parent[l] != l) {
+            parent[l] = parent[parent[l]];
+            l = parent[l];
+        }
+        return l;
+    }
+
+    private int union(int a, int b) {
+        if (a == b) return a;
+        if (size[a] < size[b]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        parent[b] = a;
+        size[a] += size[b];
+        regionCount--;
+        return a;
+    }
+}
@@ -0,0 +1,44 @@
+package game.map;
+import game.characters.EnemyStore;
+import game.core.GameEntity;
+import game.items.Wall;
+import java.util.SplittableRandom;
+
+/**
+ * The original layout, every cell is rolled on its own: 40% empty, 30% enemy,
+ * 10% wall and 20% potion.
+ */
+public class ScatterGenerator implements DungeonGenerator {
+
+    @Override
+    public GameEntity[] generateChunk(long seed, int top, int left, int height, int width) {
+        SplittableRandom rand = new SplittableRandom(MapGenerator.seedFor(seed, Position.pack(top, left)));
+        GameEntity[] cells = new GameEntity[height * width];
+        EnemyStore enemies = new EnemyStore(rand.split()); // lives as long as the chunk
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                cells[r * width + c] = rollCell(top + r, left + c, enemies, rand);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * rolls what a single cell starts with, or null if the cell stays empty
+     */
+    private static GameEntity rollCell(int r, int c, EnemyStore enemies, SplittableRandom rand) {
+        double roll = rand.nextDouble();
+
+        if (roll < 0.4) {
+            return null;
+        } else if (roll < 0.7) {
+            return MapGenerator.rollEnemy(enemies, rand);
+        } else if (roll < 0.8) {
+            // 10% chance to add a wall
+            return new Wall(new Position(r, c));
+        } else {
+            // 20% chance to add potion
+            return MapGenerator.rollPotion(new Position(r, c), rand);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package game.map;
+
+/**
+ * The different ways a {@link GameMap} can store the entities on its cells.
+ *
+ * <p>
+ * Every mode exposes the same public API on {@code GameMap}, only the memory
+ * layout behind it changes.
+ */
+public enum StorageMode {
+
+    /**
+     * the original layout, a hash map from {@link Position} to a list of entities
+     */
+    HASH,
+
+    /**
+     * a flat slot array indexed by {@code row * cols + col}, one slot per cell
+     */
+    ARRAY,
+
+    /**
+     * fixed size chunks that are generated from a seed on first access and evicted
+     * again when they are far from every player
+     */
+    CHUNKED
+}
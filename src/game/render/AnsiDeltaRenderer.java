@@ -0,0 +1,166 @@
+package game.render;
+import game.characters.PlayerCharacter;
+import game.map.GameMap;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Draws the map on an ANSI terminal and only redraws the cells that changed.
+ *
+ * <p>
+ * The first frame clears the screen and draws the whole map at the top of it. The
+ * renderer remembers every symbol it drew, so later frames only send a cursor move
+ * and the new symbol for each cell that is different from last time. After every
+ * frame the cursor is put on the line under the map and the rest of the screen is
+ * cleared, which leaves room for the text of the turn.
+ *
+ * <p>
+ * The bytes sent per turn grow with the amount of changed cells instead of the size
+ * of the map. Call {@link #reset()} to force a full redraw, for example after
+ * something else wrote over the screen.
+ *
+ * <p>
+ * With a {@link Camera} only its window is compared and drawn.
+ */
+public class AnsiDeltaRenderer implements MapRenderer {
+
+    private static final char ESC = 27;
+
+    private final PrintStream out;
+    private Camera camera;
+    private char[] last;
+    private int lastRows;
+    private int lastCols;
+    private byte[] buffer;
+    private int length;
+
+    /**
+     * constructs a renderer that writes escape sequences to the given stream
+     */
+    public AnsiDeltaRenderer(PrintStream out) {
+        if (out == null) {
+            throw new IllegalArgumentException("Output stream must not be null");
+        }
+        this.out = out;
+        this.buffer = new byte[256];
+    }
+
+    /**
+     * setter for the camera, null draws the whole map
+     */
+    public void setCamera(Camera camera) {
+        this.camera = camera;
+        reset();
+    }
+
+    /**
+     * draws the changed cells, or the whole map if nothing was drawn yet
+     */
+    @Override
+    public void render(GameMap map, PlayerCharacter viewer) {
+        int viewerId = map.getViewerId(viewer);
+        int top = 0;
+        int left = 0;
+        int rows = map.getRows();
+        int cols = map.getCols();
+        if (camera != null) {
+            camera.follow(map, viewer);
+            top = camera.getTop();
+            left = camera.getLeft();
+            rows = camera.getRows();
+            cols = camera.getCols();
+        }
+        length = 0;
+
+        if (last == null || rows != lastRows || cols != lastCols) {
+            drawAll(map, viewerId, top, left, rows, cols);
+        } else {
+            drawChanges(map, viewerId, top, left, rows, cols);
+        }
+
+        // park the cursor under the map and clear the old turn text
+        moveTo(rows, 0);
+        append(ESC).append('[').append('J');
+
+        out.write(buffer, 0, length);
+        out.flush();
+    }
+
+    /**
+     * forgets the last frame, the next render draws the whole map again
+     */
+    public void reset() {
+        last = null;
+    }
+
+    /**
+     * returns the amount of bytes sent by the last render
+     */
+    public int getLastFrameLength() {
+        return length;
+    }
+
+    private void drawAll(GameMap map, int viewerId, int top, int left, int rows, int cols) {
+        last = new char[rows * cols];
+        lastRows = rows;
+        lastCols = cols;
+
+        append(ESC).append('[').append('2').append('J');
+        append(ESC).append('[').append('H');
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                char symbol = viewerId < 0 ? '.' : map.symbolAt(viewerId, top + r, left + c);
+                last[r * cols + c] = symbol;
+                append(symbol).append(' ');
+            }
+            append('\n');
+        }
+    }
+
+    private void drawChanges(GameMap map, int viewerId, int top, int left, int rows, int cols) {
+        // where the cursor is after the last write, so neighbouring cells skip the move
+        int cursorRow = -1;
+        int cursorCol = -1;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                char symbol = viewerId < 0 ? '.' : map.symbolAt(viewerId, top + r, left + c);
+                int index = r * cols + c;
+                if (last[index] == symbol) continue;
+                last[index] = symbol;
+
+                if (r != cursorRow || c * 2 != cursorCol) {
+                    moveTo(r, c * 2);
+                }
+                append(symbol).append(' ');
+                cursorRow = r;
+                cursorCol = c * 2 + 2;
+            }
+        }
+    }
+
+    /**
+     * appends the sequence that moves the cursor to the zero based row and column
+     */
+    private void moveTo(int row, int col) {
+        append(ESC).append('[');
+        appendInt(row + 1);
+        append(';');
+        appendInt(col + 1);
+        append('H');
+    }
+
+    private AnsiDeltaRenderer append(char ch) {
+        if (length == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        buffer[length++] = (byte) ch; // every symbol and escape sequence is plain ASCII
+        return this;
+    }
+
+    private void appendInt(int value) {
+        if (value >= 10) {
+            appendInt(value / 10);
+        }
+        append((char) ('0' + value % 10));
+    }
+}
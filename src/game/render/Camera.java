@@ -0,0 +1,79 @@
+package game.render;
+import game.characters.PlayerCharacter;
+import game.map.GameMap;
+import game.map.Position;
+
+/**
+ * A window over the map that follows a player.
+ *
+ * <p>
+ * Renderers that have a camera only draw the cells inside its window, so the cost of
+ * a frame depends on the size of the window and not on the size of the map. The
+ * window is centered on the player and pushed back inside the map near its borders.
+ * On maps smaller than the window the whole map is shown.
+ */
+public class Camera {
+
+    private final int width;
+    private final int height;
+    private int top;
+    private int left;
+    private int rows;
+    private int cols;
+
+    /**
+     * constructs a camera that shows the given amount of columns and rows
+     */
+    public Camera(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Camera must be at least 1x1");
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * moves the window so the player is in its center
+     */
+    public void follow(GameMap map, PlayerCharacter viewer) {
+        rows = Math.min(height, map.getRows());
+        cols = Math.min(width, map.getCols());
+
+        Position pos = viewer == null ? null : viewer.getPosition();
+        if (pos == null) return;
+        top = clamp(pos.getRow() - rows / 2, map.getRows() - rows);
+        left = clamp(pos.getCol() - cols / 2, map.getCols() - cols);
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    /**
+     * getter for the first map row inside the window
+     */
+    public int getTop() {
+        return top;
+    }
+
+    /**
+     * getter for the first map column inside the window
+     */
+    public int getLeft() {
+        return left;
+    }
+
+    /**
+     * getter for the amount of rows shown after the last follow
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * getter for the amount of columns shown after the last follow
+     */
+    public int getCols() {
+        return cols;
+    }
+}
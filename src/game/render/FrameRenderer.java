@@ -0,0 +1,95 @@
+package game.render;
+import game.characters.PlayerCharacter;
+import game.map.GameMap;
+import java.io.PrintStream;
+
+/**
+ * Draws the map as a single frame.
+ *
+ * <p>
+ * The frame is built into one {@code char[]} that is reused between redraws, and
+ * written to the output with a single call. Every cell takes two characters (the
+ * symbol and a space) and every row ends with a new line, the same layout the map
+ * has always been printed in.
+ *
+ * <p>
+ * Without a {@link Camera} the whole map is drawn, with one only the window of the
+ * camera is drawn.
+ */
+public class FrameRenderer implements MapRenderer {
+
+    private final PrintStream out;
+    private Camera camera;
+    private char[] frame;
+    private int frameLength;
+
+    /**
+     * constructs a renderer that writes its frames to the given stream
+     */
+    public FrameRenderer(PrintStream out) {
+        if (out == null) {
+            throw new IllegalArgumentException("Output stream must not be null");
+        }
+        this.out = out;
+        this.frame = new char[0];
+    }
+
+    /**
+     * setter for the camera, null draws the whole map
+     */
+    public void setCamera(Camera camera) {
+        this.camera = camera;
+    }
+
+    /**
+     * builds the frame and writes it in one call
+     */
+    @Override
+    public void render(GameMap map, PlayerCharacter viewer) {
+        buildFrame(map, viewer);
+        out.print(frame);
+        out.flush();
+    }
+
+    /**
+     * Builds the frame of the map as the viewer sees it, without writing it anywhere.
+     * @return the amount of characters in the frame
+     */
+    public int buildFrame(GameMap map, PlayerCharacter viewer) {
+        int viewerId = map.getViewerId(viewer);
+        int top = 0;
+        int left = 0;
+        int rows = map.getRows();
+        int cols = map.getCols();
+        if (camera != null) {
+            camera.follow(map, viewer);
+            top = camera.getTop();
+            left = camera.getLeft();
+            rows = camera.getRows();
+            cols = camera.getCols();
+        }
+
+        int length = rows * (cols * 2 + 1);
+        if (frame.length != length) {
+            frame = new char[length];
+        }
+
+        int i = 0;
+        for (int r = top; r < top + rows; r++) {
+            for (int c = left; c < left + cols; c++) {
+                frame[i++] = viewerId < 0 ? '.' : map.symbolAt(viewerId, r, c);
+                frame[i++] = ' ';
+            }
+            frame[i++] = '\n';
+        }
+        frameLength = i;
+        return frameLength;
+    }
+
+    /**
+     * returns the amount of characters in the last frame that was built
+     */
+    public int getFrameLength() {
+        return frameLength;
+    }
+}
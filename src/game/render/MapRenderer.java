@@ -0,0 +1,20 @@
+package game.render;
+import game.characters.PlayerCharacter;
+import game.map.GameMap;
+
+/**
+ * Represents a way of drawing the game map.
+ * <p>
+ * this interface is implemented by every renderer, {@link GameMap#displayMap()} hands
+ * the drawing over to the renderer of the map
+ * </p>
+ */
+public interface MapRenderer {
+
+    /**
+     * draws the map as the player sees it
+     * @param map the map to draw
+     * @param viewer the player whose fog of war is used
+     */
+    void render(GameMap map, PlayerCharacter viewer);
+}
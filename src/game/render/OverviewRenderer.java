@@ -0,0 +1,91 @@
+package game.render;
+import game.characters.PlayerCharacter;
+import game.map.GameMap;
+import game.map.Position;
+import java.io.PrintStream;
+
+/**
+ * Draws a small, downsampled overview of the parts of the map the player explored.
+ *
+ * <p>
+ * Every character of the overview stands for a rectangle of the map. It is shown as
+ * {@code '@'} if the player is inside it, {@code ':'} if the player explored any of it,
+ * and a space otherwise. Exploration is read from the explored areas of the fog of
+ * war ({@link GameMap#EXPLORED_AREA} cells per side), not from single cells.
+ */
+public class OverviewRenderer implements MapRenderer {
+
+    private final PrintStream out;
+    private final int width;
+    private final int height;
+    private char[] frame;
+
+    /**
+     * constructs an overview that is at most the given amount of characters wide and high
+     */
+    public OverviewRenderer(PrintStream out, int width, int height) {
+        if (out == null) {
+            throw new IllegalArgumentException("Output stream must not be null");
+        }
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Overview must be at least 1x1");
+        }
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.frame = new char[0];
+    }
+
+    /**
+     * builds the overview and writes it in one call
+     */
+    @Override
+    public void render(GameMap map, PlayerCharacter viewer) {
+        int viewerId = map.getViewerId(viewer);
+        int rows = Math.min(height, map.getRows());
+        int cols = Math.min(width, map.getCols());
+        int cellRows = (map.getRows() + rows - 1) / rows;
+        int cellCols = (map.getCols() + cols - 1) / cols;
+        rows = (map.getRows() + cellRows - 1) / cellRows;
+        cols = (map.getCols() + cellCols - 1) / cellCols;
+        Position pos = viewer == null ? null : viewer.getPosition();
+
+        int length = rows * (cols + 1);
+        if (frame.length != length) {
+            frame = new char[length];
+        }
+
+        int i = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int top = r * cellRows;
+                int left = c * cellCols;
+                if (pos != null && pos.getRow() / cellRows == r && pos.getCol() / cellCols == c) {
+                    frame[i++] = '@';
+                } else if (viewerId >= 0 && isExplored(map, viewerId, top, left, cellRows, cellCols)) {
+                    frame[i++] = ':';
+                } else {
+                    frame[i++] = ' ';
+                }
+            }
+            frame[i++] = '\n';
+        }
+        out.print(frame);
+        out.flush();
+    }
+
+    /**
+     * checks every explored area that overlaps the rectangle
+     */
+    private boolean isExplored(GameMap map, int viewerId, int top, int left, int rows, int cols) {
+        int area = GameMap.EXPLORED_AREA;
+        for (int r = top - top % area; r < top + rows; r += area) {
+            for (int c = left - left % area; c < left + cols; c += area) {
+                if (map.isAreaExplored(viewerId, r, c)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
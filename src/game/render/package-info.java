@@ -0,0 +1,5 @@
+/**
+ * This package includes the different ways of drawing the game map to the console.
+ * @version 1.0
+ */
+package game.render;
@@ -0,0 +1,266 @@
+package game.server;
+import game.engine.GameWorld;
+import game.map.GameMap;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many games at once, one for every connection.
+ *
+ * <p>
+ * A connection plays the same text game as the console, through
+ * {@link GameWorld#startGame(InputStream, PrintStream)}, with a world of its own. Every
+ * connection is served by a thread of its own that blocks on the socket, which is only
+ * cheap with virtual threads. They are looked up by reflection so the server still runs
+ * on a JDK without them, falling back to a pool of platform threads.
+ *
+ * <p>
+ * The server listens on TCP for an {@link InetSocketAddress}, or on a Unix domain socket
+ * for a {@link UnixDomainSocketAddress}. A client picks the size of its map, up to a
+ * maximum side set by the server, so no client can take all the memory.
+ */
+public class GameServer implements Closeable {
+
+    /**
+     * the default largest amount of rows or columns a client can ask for
+     */
+    public static final int DEFAULT_MAX_SIDE = 256;
+
+    private static final int OUTPUT_BUFFER = 1 << 14;
+
+    private final ServerSocketChannel server;
+    private final ExecutorService sessions;
+    private final boolean virtual;
+    private final int maxSide;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicInteger peakSessions = new AtomicInteger();
+    private final AtomicLong totalSessions = new AtomicLong();
+    private final AtomicLong failedSessions = new AtomicLong();
+    private volatile RuntimeException lastFailure;
+    private Thread acceptor;
+
+    /**
+     * constructs a server bound to the address with the default largest map side
+     */
+    public GameServer(SocketAddress address) throws IOException {
+        this(address, DEFAULT_MAX_SIDE);
+    }
+
+    /**
+     * constructs a server bound to the address whose clients can ask for maps of at most
+     * maxSide rows and columns, it accepts connections once started
+     */
+    public GameServer(SocketAddress address, int maxSide) throws IOException {
+        if (address == null) {
+            throw new IllegalArgumentException("Address must not be null");
+        }
+        if (maxSide < GameMap.MIN_SIDE) {
+            throw new IllegalArgumentException("Maximum map side must be at least " + GameMap.MIN_SIDE);
+        }
+        this.maxSide = maxSide;
+        this.server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        this.server.bind(address, 0);
+        ExecutorService executor = newVirtualExecutor();
+        this.virtual = executor != null;
+        this.sessions = virtual ? executor : Executors.newCachedThreadPool();
+    }
+
+    /**
+     * Returns an executor that starts a virtual thread for every task, or null if the JDK
+     * has no virtual threads.
+     */
+    public static ExecutorService newVirtualExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null; // before JDK 21, or a preview that is not enabled
+        }
+    }
+
+    /**
+     * starts accepting connections, every one on a thread of its own
+     */
+    public synchronized void start() {
+        if (acceptor != null) {
+            throw new IllegalStateException("Server is already started");
+        }
+        acceptor = new Thread(this::acceptLoop, "game-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * accepts connections until the server is closed
+     */
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                sessions.execute(() -> serve(channel));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!server.isOpen()) return;
+            }
+        }
+    }
+
+    /**
+     * plays one game over the connection and closes it
+     */
+    private void serve(SocketChannel channel) {
+        int active = activeSessions.incrementAndGet();
+        peakSessions.accumulateAndGet(active, Math::max);
+        totalSessions.incrementAndGet();
+        try (channel) {
+            if (channel.getLocalAddress() instanceof InetSocketAddress) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            PrintStream out = new PrintStream(new BufferedOutputStream(Channels.newOutputStream(channel), OUTPUT_BUFFER));
+            GameWorld.startGame(new FlushingInputStream(Channels.newInputStream(channel), out), out, maxSide);
+        } catch (IOException | NoSuchElementException e) {
+            // the client left, the scanner reports a closed connection as no next line, only that game ends
+        } catch (RuntimeException e) {
+            // the input is checked, so this is a bug in the game, only that game ends but it is counted
+            failedSessions.incrementAndGet();
+            lastFailure = e;
+        } finally {
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * getter for the address the server listens on, with the port chosen if it was bound to port 0
+     */
+    public SocketAddress getLocalAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    /**
+     * checks if the sessions run on virtual threads
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * returns the amount of games being played right now
+     */
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * returns the most games that were played at the same time
+     */
+    public int getPeakSessions() {
+        return peakSessions.get();
+    }
+
+    /**
+     * returns the amount of games started since the server started
+     */
+    public long getTotalSessions() {
+        return totalSessions.get();
+    }
+
+    /**
+     * returns the amount of games that ended because of an error in the game
+     */
+    public long getFailedSessions() {
+        return failedSessions.get();
+    }
+
+    /**
+     * returns the error that ended a game last, or null if no game failed
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * stops accepting connections and waits a moment for the games being played, the
+     * socket file of a Unix domain socket is removed
+     */
+    @Override
+    public void close() throws IOException {
+        SocketAddress address = server.getLocalAddress();
+        server.close();
+        sessions.shutdown();
+        try {
+            sessions.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sessions.shutdownNow();
+        if (address instanceof UnixDomainSocketAddress unix) {
+            Files.deleteIfExists(unix.getPath());
+        }
+    }
+
+    /**
+     * Flushes the output of a session whenever the game waits for the client, so a whole
+     * turn goes out in one write instead of one write per line.
+     */
+    private static class FlushingInputStream extends FilterInputStream {
+
+        private final PrintStream out;
+
+        FlushingInputStream(InputStream in, PrintStream out) {
+            super(in);
+            this.out = out;
+        }
+
+        @Override
+        public int read() throws IOException {
+            out.flush();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            out.flush();
+            return super.read(b, off, len);
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped. The argument is a TCP port, 4000 by
+     * default, or the path of a Unix domain socket.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String where = args.length > 0 ? args[0] : "4000";
+        SocketAddress address = where.chars().allMatch(Character::isDigit)
+                ? new InetSocketAddress(Integer.parseInt(where))
+                : UnixDomainSocketAddress.of(Path.of(where));
+        try (GameServer server = new GameServer(address)) {
+            server.start();
+            System.out.println("Listening on " + server.getLocalAddress()
+                    + (server.isVirtual() ? " with virtual threads" : " with platform threads"));
+            Thread.currentThread().join();
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * This package includes the game server, which hosts many independent games over TCP or Unix domain sockets.
+ * @version 1.0
+ */
+package game.server;
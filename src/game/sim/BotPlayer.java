@@ -0,0 +1,205 @@
+package game.sim;
+import game.ai.Pathfinder;
+import game.characters.PlayerCharacter;
+import game.core.GameEntity;
+import game.core.Layer;
+import game.engine.Command;
+import game.engine.GameWorld;
+import game.items.GameItem;
+import game.map.Direction;
+import game.map.GameMap;
+import game.map.Position;
+import game.map.RegionLabels;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A computer player that plays a whole game through the headless {@link GameWorld} API.
+ *
+ * <p>
+ * Every turn it picks the first of these that applies:
+ * <ol>
+ *     <li>drink a health potion when its health is at {@link #LOW_HEALTH} or below</li>
+ *     <li>drink any power potion it carries</li>
+ *     <li>loot when an item lies next to it</li>
+ *     <li>walk toward the closest enemy it can see, the fight starts by itself once it is in range</li>
+ *     <li>walk toward the closest item it can see</li>
+ *     <li>explore, walking toward a random free cell of its region, picking a new one once it
+ *     gets there or after {@link #WANDER_STEPS} steps</li>
+ * </ol>
+ * The steps are found with a {@link Pathfinder} of its own, so a bot only touches its own game.
+ */
+public class BotPlayer {
+
+    /**
+     * the health at which the bot drinks a health potion
+     */
+    public static final int LOW_HEALTH = 50;
+
+    /**
+     * the amount of steps the bot walks toward an exploration target before it picks another one
+     */
+    public static final int WANDER_STEPS = 40;
+
+    private final GameWorld world;
+    private final GameMap map;
+    private final PlayerCharacter player;
+    private final Pathfinder pathfinder;
+    private final SplittableRandom rand;
+    private final int[] step;
+    private Position wanderTarget;
+    private int wanderSteps;
+
+    /**
+     * constructs a bot that plays the first player of the world, its choices are rolled from the seed
+     */
+    public BotPlayer(GameWorld world, long seed) {
+        if (world == null || world.getPlayers().isEmpty()) {
+            throw new IllegalArgumentException("A world with a player is required");
+        }
+        this.world = world;
+        this.map = world.getMap();
+        this.player = world.getPlayers().get(0);
+        this.pathfinder = new Pathfinder(map);
+        this.rand = new SplittableRandom(seed);
+        this.step = new int[1]; // only the first step of a path is ever needed
+    }
+
+    /**
+     * getter for the player the bot plays
+     */
+    public PlayerCharacter getPlayer() {
+        return player;
+    }
+
+    /**
+     * Plays until the player dies, every enemy is dead, or the turn limit is reached.
+     * @return the amount of turns played
+     */
+    public int play(int maxTurns) {
+        int turns = 0;
+        while (turns < maxTurns && !world.isOver() && !world.getEnemies().isEmpty()) {
+            world.engage();
+            if (world.isOver()) break;
+            world.apply(nextCommand());
+            turns++;
+        }
+        return turns;
+    }
+
+    /**
+     * picks the command for this turn
+     */
+    public Command nextCommand() {
+        if (player.getHealth() <= LOW_HEALTH && carries(true)) {
+            return Command.USE_POTION;
+        }
+        if (carries(false)) {
+            return Command.USE_POWER_POTION;
+        }
+        Position pos = player.getPosition();
+        for (Direction side : Direction.values()) {
+            if (map.getEntity(pos.getRow() + side.getRowStep(), pos.getCol() + side.getColStep(), Layer.ITEM) != null) {
+                return Command.LOOT;
+            }
+        }
+
+        GameEntity enemy = closest(map.getVisibleEntities(player, Layer.ACTOR), pos);
+        if (enemy != null) {
+            Command move = stepToward(enemy.getPosition().getRow(), enemy.getPosition().getCol());
+            if (move != null) return move;
+        }
+        GameEntity item = closest(map.getVisibleEntities(player, Layer.ITEM), pos);
+        if (item != null) {
+            // items block the cell they lie on, so walk to a cell next to it
+            for (Direction side : Direction.values()) {
+                int r = item.getPosition().getRow() + side.getRowStep();
+                int c = item.getPosition().getCol() + side.getColStep();
+                if (map.isPositionFree(r, c)) {
+                    Command move = stepToward(r, c);
+                    if (move != null) return move;
+                }
+            }
+        }
+        return wander(pos);
+    }
+
+    /**
+     * walks toward the exploration target, picking a new one when needed
+     */
+    private Command wander(Position pos) {
+        if (wanderTarget == null || wanderSteps >= WANDER_STEPS
+                || (wanderTarget.getRow() == pos.getRow() && wanderTarget.getCol() == pos.getCol())) {
+            RegionLabels regions = map.getRegions();
+            int region = regions == null ? -1 : regions.regionOf(pos.getRow(), pos.getCol());
+            wanderTarget = map.getFreeCellCount() == 0 ? pos : map.randomFreePosition(rand, region);
+            wanderSteps = 0;
+        }
+        wanderSteps++;
+        Command move = stepToward(wanderTarget.getRow(), wanderTarget.getCol());
+        if (move != null) return move;
+        wanderTarget = null;
+        return randomStep(pos);
+    }
+
+    /**
+     * returns the move of the first step toward the cell, or null if there is no free step that way
+     */
+    private Command stepToward(int r, int c) {
+        Position pos = player.getPosition();
+        if (pathfinder.findPath(pos.getRow(), pos.getCol(), r, c, step) <= 0) return null;
+        int nextRow = step[0] / map.getCols();
+        int nextCol = step[0] % map.getCols();
+        if (!map.isPositionFree(nextRow, nextCol)) return null; // an enemy stands in the way
+        for (Direction direction : Direction.values()) {
+            if (pos.getRow() + direction.getRowStep() == nextRow && pos.getCol() + direction.getColStep() == nextCol) {
+                return Command.move(direction);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * steps to a random free cell next to the player, or only looks at the stats if there is none
+     */
+    private Command randomStep(Position pos) {
+        Direction[] directions = Direction.values();
+        int first = rand.nextInt(directions.length);
+        for (int i = 0; i < directions.length; i++) {
+            Direction direction = directions[(first + i) % directions.length];
+            if (map.isPositionFree(pos.getRow() + direction.getRowStep(), pos.getCol() + direction.getColStep())) {
+                return Command.move(direction);
+            }
+        }
+        return Command.STATS;
+    }
+
+    /**
+     * checks if the player carries a health potion, or a power potion
+     */
+    private boolean carries(boolean healing) {
+        for (GameItem item : player.getInventory().getItems()) {
+            if (healing ? item.isHealingPotion() : item.isPowerPotion()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * returns the entity closest to the position that is not the player, or null if there is none
+     */
+    private GameEntity closest(List<GameEntity> entities, Position pos) {
+        GameEntity best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (GameEntity entity : entities) {
+            if (entity == player) continue;
+            int distance = pos.distanceTo(entity.getPosition());
+            if (distance < bestDistance) {
+                best = entity;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,107 @@
+package game.sim;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The results of many simulated games, added up per player class.
+ *
+ * <p>
+ * A report is filled by one thread and reports of different threads are merged at the
+ * end, so it needs no locking.
+ */
+public class SimulationReport {
+
+    private final Map<String, ClassStats> stats = new LinkedHashMap<>();
+
+    /**
+     * adds the result of one game played with the given class
+     */
+    public void add(String playerClass, boolean survived, int turns, int treasure) {
+        ClassStats classStats = stats.computeIfAbsent(playerClass, name -> new ClassStats());
+        classStats.games++;
+        if (survived) classStats.survived++;
+        classStats.turns += turns;
+        classStats.treasure += treasure;
+    }
+
+    /**
+     * adds every result of the other report to this one
+     */
+    public void merge(SimulationReport other) {
+        for (Map.Entry<String, ClassStats> entry : other.stats.entrySet()) {
+            ClassStats mine = stats.computeIfAbsent(entry.getKey(), name -> new ClassStats());
+            ClassStats theirs = entry.getValue();
+            mine.games += theirs.games;
+            mine.survived += theirs.survived;
+            mine.turns += theirs.turns;
+            mine.treasure += theirs.treasure;
+        }
+    }
+
+    /**
+     * returns the amount of games played, by every class together
+     */
+    public long getGames() {
+        long games = 0;
+        for (ClassStats classStats : stats.values()) {
+            games += classStats.games;
+        }
+        return games;
+    }
+
+    /**
+     * returns the amount of games played with the class
+     */
+    public long getGames(String playerClass) {
+        ClassStats classStats = stats.get(playerClass);
+        return classStats == null ? 0 : classStats.games;
+    }
+
+    /**
+     * returns the share of the games the class survived, between 0 and 1
+     */
+    public double getSurvivalRate(String playerClass) {
+        ClassStats classStats = stats.get(playerClass);
+        return classStats == null || classStats.games == 0 ? 0 : (double) classStats.survived / classStats.games;
+    }
+
+    /**
+     * returns the average amount of turns the class survived
+     */
+    public double getAverageTurns(String playerClass) {
+        ClassStats classStats = stats.get(playerClass);
+        return classStats == null || classStats.games == 0 ? 0 : (double) classStats.turns / classStats.games;
+    }
+
+    /**
+     * returns the average treasure points the class ended a game with
+     */
+    public double getAverageTreasure(String playerClass) {
+        ClassStats classStats = stats.get(playerClass);
+        return classStats == null || classStats.games == 0 ? 0 : (double) classStats.treasure / classStats.games;
+    }
+
+    /**
+     * represents the report as a table with a row per class
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-10s %10s %10s %10s %10s%n", "class", "games", "survived", "turns", "treasure"));
+        for (String playerClass : stats.keySet()) {
+            sb.append(String.format("%-10s %10d %9.1f%% %10.1f %10.1f%n", playerClass, getGames(playerClass),
+                    getSurvivalRate(playerClass) * 100, getAverageTurns(playerClass), getAverageTreasure(playerClass)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * the totals of a single class
+     */
+    private static class ClassStats {
+        private long games;
+        private long survived;
+        private long turns;
+        private long treasure;
+    }
+}
@@ -0,0 +1,115 @@
+package game.sim;
+import game.characters.Archer;
+import game.characters.Mage;
+import game.characters.PlayerCharacter;
+import game.characters.Warrior;
+import game.engine.GameWorld;
+import game.map.CaveGenerator;
+import game.map.DungeonGenerator;
+import game.map.GameMap;
+import game.map.MapGenerator;
+import game.map.StorageMode;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+/**
+ * Plays many complete games with {@link BotPlayer}s on every core and adds the results
+ * up per player class.
+ *
+ * <p>
+ * Every game gets a world of its own, with its own map, enemies, items and bot, built
+ * from a seed derived from the run seed and the number of the game. The player and the
+ * enemies roll their dice in a fight from generators seeded the same way, so a run with
+ * the same seed and amount of games always gives the same report. Games share nothing,
+ * so they are simply spread over the common fork-join pool, each thread fills a
+ * {@link SimulationReport} of its own and the reports are merged at the end. The classes
+ * take turns, so every class plays the same share of the games.
+ */
+public class SimulationRunner {
+
+    /**
+     * the default side of the maps the games are played on
+     */
+    public static final int DEFAULT_SIDE = 32;
+
+    /**
+     * the default amount of turns after which a game is stopped
+     */
+    public static final int DEFAULT_MAX_TURNS = 500;
+
+    private static final String[] CLASSES = {"Warrior", "Mage", "Archer"};
+
+    private final int rows;
+    private final int cols;
+    private final int maxTurns;
+    private final DungeonGenerator generator;
+
+    /**
+     * constructs a runner that plays on cave maps of the default size
+     */
+    public SimulationRunner() {
+        this(DEFAULT_SIDE, DEFAULT_SIDE, DEFAULT_MAX_TURNS, new CaveGenerator());
+    }
+
+    /**
+     * constructs a runner that plays on maps of the given size and generator, stopping a game after maxTurns
+     */
+    public SimulationRunner(int rows, int cols, int maxTurns, DungeonGenerator generator) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Map size must be positive");
+        }
+        if (maxTurns <= 0) {
+            throw new IllegalArgumentException("Turn limit must be positive");
+        }
+        if (generator == null) {
+            throw new IllegalArgumentException("Generator must not be null");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.maxTurns = maxTurns;
+        this.generator = generator;
+    }
+
+    /**
+     * plays the given amount of games in parallel and returns their results
+     */
+    public SimulationReport run(long games, long seed) {
+        if (games < 0) {
+            throw new IllegalArgumentException("Game count must not be negative");
+        }
+        return LongStream.range(0, games).parallel()
+                .collect(SimulationReport::new, (report, game) -> play(report, game, seed), SimulationReport::merge);
+    }
+
+    /**
+     * plays a single game and adds its result to the report
+     */
+    private void play(SimulationReport report, long game, long seed) {
+        long gameSeed = MapGenerator.seedFor(seed, game);
+        String playerClass = CLASSES[(int) (game % CLASSES.length)];
+        SplittableRandom rand = new SplittableRandom(gameSeed);
+        PlayerCharacter player = switch (playerClass) {
+            case "Warrior" -> new Warrior("bot", rand.split());
+            case "Mage" -> new Mage("bot", rand.split());
+            default -> new Archer("bot", rand.split());
+        };
+        GameMap map = new GameMap(rows, cols, player, StorageMode.ARRAY, gameSeed, generator);
+        GameWorld world = new GameWorld(map, player, gameSeed);
+        int turns = new BotPlayer(world, gameSeed).play(maxTurns);
+        report.add(playerClass, !player.isDead(), turns, player.getTreasurePoints());
+    }
+
+    /**
+     * Plays the amount of games given as the first argument, one thousand by default, and
+     * prints the results per class.
+     */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        long start = System.nanoTime();
+        SimulationReport report = new SimulationRunner().run(games, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.print(report);
+        System.out.printf("%d games in %.1f s, %.0f games/s%n", games, seconds, games / seconds);
+    }
+}
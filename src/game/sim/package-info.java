@@ -0,0 +1,5 @@
+/**
+ * This package includes the bot players and the runner that plays many games at once to measure the game's balance.
+ * @version 1.0
+ */
+package game.sim;